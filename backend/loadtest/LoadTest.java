@@ -0,0 +1,126 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop HTTP load generator with no dependencies beyond the JDK, run as a single-file program:
+ *
+ *   java loadtest/LoadTest.java --base-url=http://localhost:8080 --paths=/api/products,/api/shops \
+ *        --concurrency=400 --duration=30 --warmup=5
+ *
+ * Each of {@code concurrency} workers loops over {@code paths} issuing GETs back to back, or with
+ * {@code --think-ms} between requests, sending any {@code --headers=Name:Value;Name:Value}. After the warmup
+ * it records per-path latency and prints throughput, p50/p95/p99/max, error counts and how many of the
+ * errors were 429/503 rejections.
+ */
+public class LoadTest {
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = parse(args);
+        String baseUrl = opts.getOrDefault("base-url", "http://localhost:8080");
+        List<String> paths = Arrays.asList(opts.getOrDefault("paths", "/api/products,/api/shops").split(","));
+        int concurrency = Integer.parseInt(opts.getOrDefault("concurrency", "200"));
+        int durationSec = Integer.parseInt(opts.getOrDefault("duration", "30"));
+        int warmupSec = Integer.parseInt(opts.getOrDefault("warmup", "5"));
+        String label = opts.getOrDefault("label", "run");
+        long thinkMs = Long.parseLong(opts.getOrDefault("think-ms", "0"));
+        List<String> headers = new ArrayList<>();
+        for (String h : opts.getOrDefault("headers", "").split(";")) {
+            if (h.isBlank()) continue;
+            headers.add(h.substring(0, h.indexOf(':')).trim());
+            headers.add(h.substring(h.indexOf(':') + 1).trim());
+        }
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newFixedThreadPool(Math.max(4, concurrency / 8)))
+                .build();
+        Map<String, Recorder> recorders = new LinkedHashMap<>();
+        for (String path : paths) recorders.put(path, new Recorder());
+
+        long warmupEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmupSec);
+        long end = warmupEnd + TimeUnit.SECONDS.toNanos(durationSec);
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        for (int w = 0; w < concurrency; w++) {
+            int offset = w;
+            workers.submit(() -> {
+                int i = offset;
+                while (System.nanoTime() < end) {
+                    String path = paths.get(i++ % paths.size());
+                    HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30)).GET();
+                    if (!headers.isEmpty()) builder.headers(headers.toArray(String[]::new));
+                    long start = System.nanoTime();
+                    int status;
+                    try {
+                        status = client.send(builder.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+                    } catch (Exception e) {
+                        status = -1;
+                    }
+                    long now = System.nanoTime();
+                    if (start >= warmupEnd) recorders.get(path).record(now - start, status);
+                    if (thinkMs > 0) {
+                        try {
+                            Thread.sleep(thinkMs);
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                    }
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(warmupSec + durationSec + 60, TimeUnit.SECONDS);
+
+        System.out.printf("%-12s %-24s %10s %10s %9s %9s %9s %9s %8s %8s%n",
+                "label", "path", "requests", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms", "errors", "rejected");
+        for (Map.Entry<String, Recorder> e : recorders.entrySet()) {
+            Recorder r = e.getValue();
+            long[] lat = r.sorted();
+            System.out.printf("%-12s %-24s %10d %10.1f %9.2f %9.2f %9.2f %9.2f %8d %8d%n",
+                    label, e.getKey(), lat.length, lat.length / (double) durationSec,
+                    pct(lat, 50), pct(lat, 95), pct(lat, 99), lat.length == 0 ? 0 : lat[lat.length - 1] / 1e6, r.errors.get(), r.rejected.get());
+        }
+        System.exit(0);
+    }
+
+    private static double pct(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int idx = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(idx, sorted.length - 1))] / 1e6;
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> opts = new LinkedHashMap<>();
+        for (String a : args) {
+            if (!a.startsWith("--") || !a.contains("=")) throw new IllegalArgumentException("Expected --key=value, got " + a);
+            opts.put(a.substring(2, a.indexOf('=')), a.substring(a.indexOf('=') + 1));
+        }
+        return opts;
+    }
+
+    private static final class Recorder {
+        private final List<Long> latencies = new ArrayList<>();
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+
+        synchronized void record(long nanos, int status) {
+            latencies.add(nanos);
+            if (status < 0 || status >= 400) errors.incrementAndGet();
+            if (status == 429 || status == 503) rejected.incrementAndGet();
+        }
+
+        synchronized long[] sorted() {
+            return latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        }
+    }
+}
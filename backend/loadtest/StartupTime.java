@@ -0,0 +1,90 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold-start benchmark, run as a single-file program with the server command after {@code --}:
+ *
+ *   java loadtest/StartupTime.java --label=cds --runs=5 --url=http://localhost:8080/api/shops \
+ *        -- java -XX:SharedArchiveFile=target/cds/app.jsa -jar target/cds/mall-backend-0.0.1-SNAPSHOT-exec.jar
+ *
+ * Each run launches the command, polls {@code url} until it gets a non-5xx answer (time to first served
+ * request), then polls {@code ready-url} until it returns 200 (time to ready), and stops the process.
+ * Prints every run and the median of both, measured from process launch.
+ */
+public class StartupTime {
+    public static void main(String[] args) throws Exception {
+        int split = Arrays.asList(args).indexOf("--");
+        if (split < 0 || split == args.length - 1) throw new IllegalArgumentException("Expected -- followed by the server command");
+        Map<String, String> opts = parse(Arrays.copyOfRange(args, 0, split));
+        List<String> command = Arrays.asList(Arrays.copyOfRange(args, split + 1, args.length));
+        URI url = URI.create(opts.getOrDefault("url", "http://localhost:8080/api/shops"));
+        URI readyUrl = URI.create(opts.getOrDefault("ready-url", url.resolve("/actuator/health/readiness").toString()));
+        int runs = Integer.parseInt(opts.getOrDefault("runs", "5"));
+        int timeoutSec = Integer.parseInt(opts.getOrDefault("timeout", "120"));
+        String label = opts.getOrDefault("label", "run");
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(500)).build();
+        List<Long> firstRequest = new ArrayList<>();
+        List<Long> ready = new ArrayList<>();
+        System.out.printf("%-12s %6s %18s %12s%n", "label", "run", "first request ms", "ready ms");
+        for (int run = 1; run <= runs; run++) {
+            long start = System.nanoTime();
+            Process server = new ProcessBuilder(command).redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+            try {
+                long deadline = start + TimeUnit.SECONDS.toNanos(timeoutSec);
+                long served = await(client, url, status -> status < 500, server, deadline) - start;
+                long up = await(client, readyUrl, status -> status == 200, server, deadline) - start;
+                firstRequest.add(served);
+                ready.add(up);
+                System.out.printf("%-12s %6d %18.0f %12.0f%n", label, run, served / 1e6, up / 1e6);
+            } finally {
+                server.destroy();
+                if (!server.waitFor(30, TimeUnit.SECONDS)) server.destroyForcibly().waitFor();
+            }
+        }
+        System.out.printf("%-12s %6s %18.0f %12.0f%n", label, "median", median(firstRequest) / 1e6, median(ready) / 1e6);
+    }
+
+    private interface StatusCheck {
+        boolean ok(int status);
+    }
+
+    /** @return the nanoTime at which {@code uri} first answered with a status accepted by {@code check} */
+    private static long await(HttpClient client, URI uri, StatusCheck check, Process server, long deadline) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(5)).GET().build();
+        while (System.nanoTime() < deadline) {
+            if (!server.isAlive()) throw new IllegalStateException("Server exited with " + server.exitValue());
+            try {
+                if (check.ok(client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode())) return System.nanoTime();
+            } catch (java.io.IOException e) {
+                // not listening yet
+            }
+            Thread.sleep(10);
+        }
+        throw new IllegalStateException("No answer from " + uri + " in time");
+    }
+
+    private static long median(List<Long> values) {
+        long[] sorted = values.stream().mapToLong(Long::longValue).sorted().toArray();
+        return sorted.length == 0 ? 0 : sorted[sorted.length / 2];
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> opts = new LinkedHashMap<>();
+        for (String a : args) {
+            if (!a.startsWith("--") || !a.contains("=")) throw new IllegalArgumentException("Expected --key=value, got " + a);
+            opts.put(a.substring(2, a.indexOf('=')), a.substring(a.indexOf('=') + 1));
+        }
+        return opts;
+    }
+}
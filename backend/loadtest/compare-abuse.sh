@@ -0,0 +1,46 @@
+#!/bin/sh
+# Shows what admission control buys a well-behaved client while another client hammers the list endpoints.
+# Three runs against the same database: the polite client alone, with an abuser and admission control off,
+# and with an abuser and admission control on. Compare the polite client's p99 across the three.
+# Clients are told apart by X-Forwarded-For, which Tomcat trusts from localhost.
+#
+#   MONGO_URI=mongodb://localhost:27017/ ABUSERS=200 DURATION=30 loadtest/compare-abuse.sh
+set -e
+cd "$(dirname "$0")/.."
+MONGO_URI=${MONGO_URI:-mongodb://localhost:27017/}
+ABUSERS=${ABUSERS:-200}
+DURATION=${DURATION:-30}
+WARMUP=${WARMUP:-5}
+PORT=${PORT:-8080}
+
+mvn -B -q -DskipTests package
+JAR=$(ls target/mall-backend-*-exec.jar | head -1)
+
+run() {
+  label=$1; abusers=$2; shift 2
+  java -jar "$JAR" --server.port="$PORT" --spring.data.mongodb.uri="$MONGO_URI" \
+      --server.forward-headers-strategy=native "$@" > "target/loadtest-$label.log" 2>&1 &
+  pid=$!
+  until curl -s -o /dev/null "http://localhost:$PORT/actuator/health"; do
+    kill -0 "$pid" 2>/dev/null || { cat "target/loadtest-$label.log"; exit 1; }
+    sleep 1
+  done
+  if [ "$abusers" -gt 0 ]; then
+    java loadtest/LoadTest.java --label="$label-abuser" --base-url="http://localhost:$PORT" \
+        --paths=/api/products,/api/shops --headers="X-Forwarded-For:10.0.0.66" \
+        --concurrency="$abusers" --duration="$DURATION" --warmup="$WARMUP" > "target/loadtest-$label-abuser.txt" &
+    abuser=$!
+  fi
+  java loadtest/LoadTest.java --label="$label" --base-url="http://localhost:$PORT" \
+      --paths=/api/products,/api/shops --headers="X-Forwarded-For:10.0.0.1" \
+      --concurrency=2 --think-ms=500 --duration="$DURATION" --warmup="$WARMUP"
+  if [ "$abusers" -gt 0 ]; then
+    wait "$abuser" || true
+    tail -n +2 "target/loadtest-$label-abuser.txt"
+  fi
+  kill "$pid"; wait "$pid" 2>/dev/null || true
+}
+
+run alone 0
+run unlimited "$ABUSERS" --mall.ratelimit.enabled=false
+run limited "$ABUSERS"
@@ -0,0 +1,29 @@
+#!/bin/sh
+# Time to first served request and time to ready for the startup options, against the same database:
+# the previous blocking startup (index creation and seeding before the app is up), the default async
+# bootstrap, AppCDS, Spring AOT, and AOT with CDS.
+#
+#   MONGO_URI=mongodb://localhost:27017/ RUNS=5 loadtest/compare-startup.sh
+set -e
+cd "$(dirname "$0")/.."
+MONGO_URI=${MONGO_URI:-mongodb://localhost:27017/}
+RUNS=${RUNS:-5}
+PORT=${PORT:-8080}
+JAR=target/mall-backend-0.0.1-SNAPSHOT-exec.jar
+CDS_JAR=target/cds/mall-backend-0.0.1-SNAPSHOT-exec.jar
+
+measure() {
+  label=$1; shift
+  java loadtest/StartupTime.java --label="$label" --runs="$RUNS" --url="http://localhost:$PORT/api/shops" -- \
+      "$@" --server.port="$PORT" --spring.data.mongodb.uri="$MONGO_URI"
+}
+
+mkdir -p target
+mvn -B -q -DskipTests -Pcds package > target/startup-build.log 2>&1 || { tail -50 target/startup-build.log; exit 1; }
+measure blocking java -jar "$JAR" --mall.startup.bootstrap=blocking --spring.data.mongodb.auto-index-creation=true
+measure async java -jar "$JAR"
+measure cds java -XX:SharedArchiveFile=target/cds/app.jsa -jar "$CDS_JAR"
+
+mvn -B -q -DskipTests -Paot,cds package > target/startup-build.log 2>&1 || { tail -50 target/startup-build.log; exit 1; }
+measure aot java -Dspring.aot.enabled=true -jar "$JAR"
+measure aot+cds java -XX:SharedArchiveFile=target/cds/app.jsa -Dspring.aot.enabled=true -jar "$CDS_JAR"
@@ -0,0 +1,32 @@
+#!/bin/sh
+# Compares Tomcat's platform thread pool with the virtual-threads profile on the same endpoints.
+# Requires JDK 21 on PATH. MONGO_URI points both runs at the same database.
+#
+#   MONGO_URI=mongodb://localhost:27017/ CONCURRENCY=400 DURATION=30 loadtest/compare-threading.sh
+set -e
+cd "$(dirname "$0")/.."
+MONGO_URI=${MONGO_URI:-mongodb://localhost:27017/}
+CONCURRENCY=${CONCURRENCY:-400}
+DURATION=${DURATION:-30}
+PORT=${PORT:-8080}
+
+mvn -B -q -Pjava21 -DskipTests package
+JAR=$(ls target/mall-backend-*-exec.jar | head -1)
+
+# rate limiting off in both runs: every request comes from one client, so the limiter would measure itself
+run() {
+  label=$1; shift
+  java -jar "$JAR" --server.port="$PORT" --spring.data.mongodb.uri="$MONGO_URI" --mall.ratelimit.enabled=false "$@" \
+      > "target/loadtest-$label.log" 2>&1 &
+  pid=$!
+  until curl -s -o /dev/null "http://localhost:$PORT/actuator/health"; do
+    kill -0 "$pid" 2>/dev/null || { cat "target/loadtest-$label.log"; exit 1; }
+    sleep 1
+  done
+  java loadtest/LoadTest.java --label="$label" --base-url="http://localhost:$PORT" \
+      --paths=/api/products,/api/shops --concurrency="$CONCURRENCY" --duration="$DURATION"
+  kill "$pid"; wait "$pid" 2>/dev/null || true
+}
+
+run platform
+run virtual --spring.profiles.active=virtual-threads
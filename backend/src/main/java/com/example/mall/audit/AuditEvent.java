@@ -0,0 +1,42 @@
+package com.example.mall.audit;
+
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/** One write to a product, shop or user: who did what to which document, and when. No document contents. */
+@Document(collection = "audit_events")
+@CompoundIndex(name = "collection_documentId", def = "{'collection': 1, 'documentId': 1}")
+public class AuditEvent {
+    public enum Action { CREATE, UPDATE, DELETE }
+
+    @Id
+    private String id; // set up front so a retried batch insert cannot store an event twice
+
+    private String collection;
+    private Action action;
+    private String documentId;
+    private String actor; // user id from the session token; null for unauthenticated or background writes
+    private Instant at;
+
+    public AuditEvent() {}
+
+    public AuditEvent(String collection, Action action, String documentId, String actor) {
+        this.id = new ObjectId().toHexString();
+        this.collection = collection;
+        this.action = action;
+        this.documentId = documentId;
+        this.actor = actor;
+        this.at = Instant.now();
+    }
+
+    public String getId() { return id; }
+    public String getCollection() { return collection; }
+    public Action getAction() { return action; }
+    public String getDocumentId() { return documentId; }
+    public String getActor() { return actor; }
+    public Instant getAt() { return at; }
+}
@@ -0,0 +1,196 @@
+package com.example.mall.audit;
+
+import com.example.mall.audit.AuditEvent.Action;
+import com.example.mall.auth.SessionToken;
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Write-behind change log. {@link #record} only builds the event and puts it in a {@link RingBuffer}; one
+ * writer thread stores events in {@code audit_events} with an unordered bulk insert once
+ * {@code mall.audit.batch-size} are waiting or the oldest has waited {@code mall.audit.flush-interval}.
+ *
+ * <p>When the buffer is full, a write on a servlet thread blocks the request for up to
+ * {@code mall.audit.offer-timeout}, parking in 100&micro;s steps until the writer frees a slot, and then drops
+ * the event. Non-blocking threads (the reactive profile's event loops) never wait: they drop at once. Buffer depth, waits, drops, writes and flush latency are published as {@code mall.audit.*}
+ * meters. On shutdown the writer drains the buffer before the Mongo client closes.
+ */
+@Component
+public class AuditLog implements InitializingBean, DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(AuditLog.class);
+    private static final long RETRY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final MongoTemplate mongoTemplate;
+    private final RingBuffer<AuditEvent> buffer;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long idleParkNanos;
+    private final long offerTimeoutNanos;
+    private final Duration shutdownTimeout;
+    private final Counter enqueued;
+    private final Counter waits;
+    private final Counter dropped;
+    private final Counter written;
+    private final Counter failures;
+    private final Timer flushes;
+    private final Thread writer = new Thread(this::drain, "audit-writer");
+    private volatile boolean running = true;
+    private volatile long lastDropWarning;
+
+    public AuditLog(MongoTemplate mongoTemplate, MeterRegistry meters,
+                    @Value("${mall.audit.buffer-size:65536}") int bufferSize,
+                    @Value("${mall.audit.batch-size:500}") int batchSize,
+                    @Value("${mall.audit.flush-interval:1s}") Duration flushInterval,
+                    @Value("${mall.audit.offer-timeout:10ms}") Duration offerTimeout,
+                    @Value("${mall.audit.shutdown-timeout:10s}") Duration shutdownTimeout) {
+        this.mongoTemplate = mongoTemplate;
+        this.buffer = new RingBuffer<>(bufferSize);
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.idleParkNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(1), Math.min(flushIntervalNanos / 2, TimeUnit.MILLISECONDS.toNanos(50)));
+        this.offerTimeoutNanos = offerTimeout.toNanos();
+        this.shutdownTimeout = shutdownTimeout;
+        Gauge.builder("mall.audit.buffer.size", buffer, RingBuffer::size).description("Audit events waiting to be written").register(meters);
+        Gauge.builder("mall.audit.buffer.capacity", buffer, RingBuffer::capacity).register(meters);
+        this.enqueued = meters.counter("mall.audit.events", "outcome", "enqueued");
+        this.dropped = meters.counter("mall.audit.events", "outcome", "dropped");
+        this.written = meters.counter("mall.audit.events", "outcome", "written");
+        this.waits = Counter.builder("mall.audit.enqueue.waits").description("Writes that found the buffer full and had to wait").register(meters);
+        this.failures = meters.counter("mall.audit.flush.failures");
+        this.flushes = Timer.builder("mall.audit.flush").description("Batch inserts into audit_events").register(meters);
+        writer.setDaemon(true);
+    }
+
+    /** Normally just an enqueue; see the class comment for what happens when the buffer is full. */
+    public void record(Action action, String collection, String documentId) {
+        enqueue(new AuditEvent(collection, action, documentId, currentActor()));
+    }
+
+    /** For the reactive profile, where there is no request bound to the thread to find the caller in. */
+    public void record(Action action, String collection, String documentId, SessionToken caller) {
+        enqueue(new AuditEvent(collection, action, documentId, caller == null ? null : caller.userId()));
+    }
+
+    public void record(Action action, String collection, Collection<String> documentIds) {
+        String actor = currentActor();
+        for (String id : documentIds) enqueue(new AuditEvent(collection, action, id, actor));
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        writer.start();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(shutdownTimeout.toMillis());
+        if (writer.isAlive()) log.warn("Audit writer did not drain within {}; {} events lost", shutdownTimeout, buffer.size());
+    }
+
+    private void enqueue(AuditEvent event) {
+        if (buffer.offer(event)) {
+            enqueued.increment();
+            return;
+        }
+        LockSupport.unpark(writer);
+        if (!Schedulers.isInNonBlockingThread()) { // parking an event loop would stall every connection it serves
+            waits.increment();
+            long deadline = System.nanoTime() + offerTimeoutNanos;
+            while (System.nanoTime() < deadline) {
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+                if (buffer.offer(event)) {
+                    enqueued.increment();
+                    return;
+                }
+            }
+        }
+        dropped.increment();
+        long now = System.currentTimeMillis();
+        if (now - lastDropWarning > 10_000) {
+            lastDropWarning = now;
+            log.warn("Audit buffer full ({} events); dropping events", buffer.capacity());
+        }
+    }
+
+    private void drain() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        long oldest = 0;
+        while (true) {
+            AuditEvent event = buffer.poll();
+            if (event != null) {
+                if (batch.isEmpty()) oldest = System.nanoTime();
+                batch.add(event);
+                if (batch.size() >= batchSize) flush(batch);
+                continue;
+            }
+            if (!batch.isEmpty() && (!running || System.nanoTime() - oldest >= flushIntervalNanos)) flush(batch);
+            if (!running && batch.isEmpty() && buffer.size() == 0) return;
+            LockSupport.parkNanos(idleParkNanos);
+        }
+    }
+
+    /** Retries until the batch is stored; at shutdown a failing batch is given up after one attempt. */
+    private void flush(List<AuditEvent> batch) {
+        while (true) {
+            try {
+                flushes.record(() -> insert(batch));
+                written.increment(batch.size());
+                batch.clear();
+                return;
+            } catch (RuntimeException e) {
+                failures.increment();
+                if (!running) {
+                    log.error("Dropping {} audit events at shutdown: {}", batch.size(), e.getMessage());
+                    dropped.increment(batch.size());
+                    batch.clear();
+                    return;
+                }
+                log.warn("Writing {} audit events failed, retrying: {}", batch.size(), e.getMessage());
+                LockSupport.parkNanos(RETRY_NANOS);
+            }
+        }
+    }
+
+    private void insert(List<AuditEvent> batch) {
+        try {
+            mongoTemplate.bulkOps(BulkMode.UNORDERED, AuditEvent.class).insert(batch).execute();
+        } catch (BulkOperationException e) {
+            // events stored by an earlier attempt of this batch come back as duplicate keys; anything else is a failure
+            for (BulkWriteError error : e.getErrors()) {
+                if (ErrorCategory.fromErrorCode(error.getCode()) != ErrorCategory.DUPLICATE_KEY) throw e;
+            }
+        }
+    }
+
+    private static String currentActor() {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request == null) return null;
+        return request.getAttribute(SessionToken.REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof SessionToken token
+                ? token.userId() : null;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.mall.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free queue for many producers and one consumer (Vyukov's array queue). Each slot carries a
+ * sequence number: producers claim a position with one CAS on the tail and publish by advancing the slot's
+ * sequence, the consumer takes a slot once its sequence says it is filled. A full buffer fails the offer
+ * instead of blocking.
+ */
+final class RingBuffer<E> {
+    private final Object[] items;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head; // written by the consumer only
+
+    RingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1); // next power of two
+        this.items = new Object[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) sequences.set(i, i);
+    }
+
+    boolean offer(E item) {
+        long pos = tail.get();
+        while (true) {
+            int slot = (int) (pos & mask);
+            long diff = sequences.get(slot) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    items[slot] = item;
+                    sequences.set(slot, pos + 1); // publishes the item to the consumer
+                    return true;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                return false; // the consumer has not freed this slot yet: full
+            } else {
+                pos = tail.get(); // another producer took it
+            }
+        }
+    }
+
+    /** Consumer side only. */
+    @SuppressWarnings("unchecked")
+    E poll() {
+        long pos = head;
+        int slot = (int) (pos & mask);
+        if (sequences.get(slot) != pos + 1) return null;
+        E item = (E) items[slot];
+        items[slot] = null;
+        sequences.set(slot, pos + items.length); // free for the producer one lap ahead
+        head = pos + 1;
+        return item;
+    }
+
+    int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    int capacity() {
+        return items.length;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.mall.auth;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+
+/**
+ * Requires a valid bearer token for writes (POST/PUT/PATCH/DELETE) to {@code /api/products} and
+ * {@code /api/shops}, and for updating or deleting a user. Verification is a signature check plus the in-memory revocation list; MongoDB is not
+ * touched. Reads stay anonymous. The verified {@link SessionToken} is stored as a request attribute.
+ *
+ * <p>Paths are matched the way Spring MVC routes them: decoded, with {@code ;} parameters removed and
+ * duplicate slashes merged, so {@code /api;x=1/shops/1} or {@code /api/%70roducts} are checked too.
+ * {@link ReactiveAuthTokenFilter} does the same for the reactive profile.
+ */
+@Component
+@Profile("!reactive")
+public class AuthTokenFilter extends OncePerRequestFilter {
+    private static final String BEARER = "Bearer ";
+
+    private final TokenService tokenService;
+
+    public AuthTokenFilter(TokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        if (HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method) || HttpMethod.OPTIONS.matches(method)) return true;
+        return !requiresToken(method, UrlPathHelper.defaultInstance.getPathWithinApplication(request));
+    }
+
+    /** Whether a write to {@code path} (decoded, without {@code ;} parameters) needs a session token. */
+    static boolean requiresToken(String method, String path) {
+        return path.startsWith("/api/products") || path.startsWith("/api/shops")
+                || path.startsWith("/api/users/"); // sign-up (POST /api/users) stays anonymous
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        SessionToken token = header != null && header.startsWith(BEARER) ? tokenService.verify(header.substring(BEARER.length())) : null;
+        if (token == null) {
+            response.setStatus(HttpStatus.UNAUTHORIZED.value());
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+            response.setContentType("text/plain;charset=UTF-8");
+            response.getWriter().write("Missing or invalid session token");
+            return;
+        }
+        request.setAttribute(SessionToken.REQUEST_ATTRIBUTE, token);
+        chain.doFilter(request, response);
+    }
+}
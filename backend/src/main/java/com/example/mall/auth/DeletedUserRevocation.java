@@ -0,0 +1,31 @@
+package com.example.mall.auth;
+
+import com.example.mall.changes.ChangeEvent;
+import com.example.mall.changes.ChangeListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Applies account deletions made on other instances to this node's {@link TokenRevocationList}, so a
+ * deleted user's tokens stop working everywhere. Logouts and password changes remain node-local.
+ */
+@Component
+public class DeletedUserRevocation implements ChangeListener {
+    private final TokenRevocationList revocations;
+    private final TokenService tokenService;
+
+    public DeletedUserRevocation(TokenRevocationList revocations, TokenService tokenService) {
+        this.revocations = revocations;
+        this.tokenService = tokenService;
+    }
+
+    @Override
+    public void onChanges(List<ChangeEvent> events) {
+        for (ChangeEvent event : events) {
+            if (!event.isInvalidate() && "users".equals(event.collection()) && event.operation() == ChangeEvent.Operation.DELETE) {
+                revocations.revokeUser(event.documentId(), tokenService.getTtl());
+            }
+        }
+    }
+}
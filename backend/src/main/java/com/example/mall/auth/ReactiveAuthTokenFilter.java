@@ -0,0 +1,60 @@
+package com.example.mall.auth;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+
+/** {@link AuthTokenFilter} for the reactive profile: the same writes need the same bearer token. */
+@Component
+@Profile("reactive")
+public class ReactiveAuthTokenFilter implements WebFilter {
+    private static final String BEARER = "Bearer ";
+
+    private final TokenService tokenService;
+
+    public ReactiveAuthTokenFilter(TokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        HttpMethod method = exchange.getRequest().getMethod();
+        if (HttpMethod.GET.equals(method) || HttpMethod.HEAD.equals(method) || HttpMethod.OPTIONS.equals(method)
+                || !AuthTokenFilter.requiresToken(method.name(), lookupPath(exchange.getRequest().getPath().pathWithinApplication()))) {
+            return chain.filter(exchange);
+        }
+        String header = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        SessionToken token = header != null && header.startsWith(BEARER) ? tokenService.verify(header.substring(BEARER.length())) : null;
+        if (token == null) {
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            response.getHeaders().set(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+            response.getHeaders().setContentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8));
+            return response.writeWith(Mono.just(response.bufferFactory().wrap("Missing or invalid session token".getBytes(StandardCharsets.UTF_8))));
+        }
+        exchange.getAttributes().put(SessionToken.REQUEST_ATTRIBUTE, token);
+        return chain.filter(exchange);
+    }
+
+    /** The path as WebFlux matches it: decoded segments without {@code ;} parameters, empty segments dropped. */
+    private static String lookupPath(PathContainer path) {
+        StringBuilder out = new StringBuilder();
+        for (PathContainer.Element element : path.elements()) {
+            if (element instanceof PathContainer.PathSegment segment && !segment.valueToMatch().isEmpty()) {
+                out.append('/').append(segment.valueToMatch());
+            }
+        }
+        return out.toString();
+    }
+}
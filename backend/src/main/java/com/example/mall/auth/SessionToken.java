@@ -0,0 +1,9 @@
+package com.example.mall.auth;
+
+import java.time.Instant;
+
+/** Claims carried by a verified session token. */
+public record SessionToken(String userId, String role, String tokenId, Instant issuedAt, Instant expiresAt) {
+    /** Request attribute under which {@link AuthTokenFilter} exposes the caller's token to controllers. */
+    public static final String REQUEST_ATTRIBUTE = "com.example.mall.auth.SessionToken";
+}
@@ -0,0 +1,51 @@
+package com.example.mall.auth;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process revocation for session tokens: single tokens (logout) by token id, and every token of a user
+ * issued before a cut-off (password change, account deletion). Entries are dropped once the tokens they cover
+ * have expired anyway. The list is not shared between instances; only account deletions reach the other
+ * instances, through {@link DeletedUserRevocation}.
+ */
+@Component
+public class TokenRevocationList {
+    private final Map<String, Instant> revokedTokens = new ConcurrentHashMap<>();
+    private final Map<String, UserCutoff> userCutoffs = new ConcurrentHashMap<>();
+
+    public void revoke(SessionToken token) {
+        purgeExpired();
+        revokedTokens.put(token.tokenId(), token.expiresAt());
+    }
+
+    /**
+     * Rejects every token of {@code userId} issued before the current second. Token timestamps have
+     * one-second resolution, so a token issued in the same second as the cut-off stays valid.
+     */
+    public void revokeUser(String userId, Duration tokenTtl) {
+        purgeExpired();
+        Instant now = Instant.now();
+        userCutoffs.put(userId, new UserCutoff(now.truncatedTo(ChronoUnit.SECONDS), now.plus(tokenTtl)));
+    }
+
+    public boolean isRevoked(SessionToken token) {
+        if (!revokedTokens.isEmpty() && revokedTokens.containsKey(token.tokenId())) return true;
+        if (userCutoffs.isEmpty()) return false;
+        UserCutoff cutoff = userCutoffs.get(token.userId());
+        return cutoff != null && token.issuedAt().isBefore(cutoff.issuedBefore());
+    }
+
+    private void purgeExpired() {
+        Instant now = Instant.now();
+        revokedTokens.values().removeIf(expiry -> expiry.isBefore(now));
+        userCutoffs.values().removeIf(cutoff -> cutoff.keepUntil().isBefore(now));
+    }
+
+    private record UserCutoff(Instant issuedBefore, Instant keepUntil) {}
+}
@@ -0,0 +1,150 @@
+package com.example.mall.auth;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Issues and verifies HS256 JWTs carrying user id and role, so authenticated requests need no user lookup.
+ *
+ * <p>Signing keys come from {@code mall.auth.token.secret} (base64, at least 32 bytes); keys listed in
+ * {@code mall.auth.token.previous-secrets} still verify, which allows rotating the secret without logging
+ * everyone out. Each key gets a {@code kid} so verification picks the right one directly. A {@link Mac} is
+ * initialised once per key and reused across requests.
+ */
+@Service
+public class TokenService {
+    private static final Logger log = LoggerFactory.getLogger(TokenService.class);
+    private static final Base64.Encoder B64 = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder B64D = Base64.getUrlDecoder();
+
+    private final ObjectMapper objectMapper;
+    private final TokenRevocationList revocations;
+    private final Duration ttl;
+    private final SigningKey current;
+    private final Map<String, SigningKey> keys = new HashMap<>();
+
+    public TokenService(ObjectMapper objectMapper, TokenRevocationList revocations,
+                        @Value("${mall.auth.token.secret:}") String secret,
+                        @Value("${mall.auth.token.previous-secrets:}") List<String> previousSecrets,
+                        @Value("${mall.auth.token.ttl:12h}") Duration ttl) {
+        this.objectMapper = objectMapper;
+        this.revocations = revocations;
+        this.ttl = ttl;
+        byte[] key;
+        if (secret.isBlank()) {
+            key = new byte[32];
+            new SecureRandom().nextBytes(key);
+            log.warn("mall.auth.token.secret is not set; using a random key, so tokens will not survive a restart");
+        } else {
+            key = Base64.getDecoder().decode(secret.trim());
+        }
+        this.current = register(key);
+        for (String previous : previousSecrets) {
+            if (!previous.isBlank()) register(Base64.getDecoder().decode(previous.trim()));
+        }
+    }
+
+    private SigningKey register(byte[] key) {
+        if (key.length < 32) throw new IllegalArgumentException("Token signing keys must be at least 256 bits");
+        SigningKey signingKey = new SigningKey(key);
+        keys.put(signingKey.id, signingKey);
+        return signingKey;
+    }
+
+    public Duration getTtl() { return ttl; }
+
+    public String issue(String userId, String role) {
+        Instant now = Instant.now();
+        ObjectNode header = objectMapper.createObjectNode().put("alg", "HS256").put("typ", "JWT").put("kid", current.id);
+        ObjectNode claims = objectMapper.createObjectNode()
+                .put("sub", userId)
+                .put("role", role)
+                .put("jti", UUID.randomUUID().toString())
+                .put("iat", now.getEpochSecond())
+                .put("exp", now.plus(ttl).getEpochSecond());
+        try {
+            String signingInput = B64.encodeToString(objectMapper.writeValueAsBytes(header)) + "."
+                    + B64.encodeToString(objectMapper.writeValueAsBytes(claims));
+            return signingInput + "." + B64.encodeToString(current.sign(signingInput));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** @return the verified claims, or null if the token is malformed, forged, expired or revoked */
+    public SessionToken verify(String token) {
+        if (token == null) return null;
+        int first = token.indexOf('.');
+        int second = token.indexOf('.', first + 1);
+        if (first < 0 || second < 0 || token.indexOf('.', second + 1) >= 0) return null;
+        try {
+            JsonNode header = objectMapper.readTree(B64D.decode(token.substring(0, first)));
+            SigningKey key = keys.get(header.path("kid").asText());
+            if (key == null || !"HS256".equals(header.path("alg").asText())) return null;
+            byte[] expected = key.sign(token.substring(0, second));
+            if (!MessageDigest.isEqual(expected, B64D.decode(token.substring(second + 1)))) return null;
+
+            JsonNode claims = objectMapper.readTree(B64D.decode(token.substring(first + 1, second)));
+            SessionToken session = new SessionToken(claims.path("sub").asText(null), claims.path("role").asText(null),
+                    claims.path("jti").asText(null), Instant.ofEpochSecond(claims.path("iat").asLong()),
+                    Instant.ofEpochSecond(claims.path("exp").asLong()));
+            if (session.userId() == null || session.tokenId() == null || !session.expiresAt().isAfter(Instant.now())) return null;
+            return revocations.isRevoked(session) ? null : session;
+        } catch (IllegalArgumentException | IOException e) {
+            return null;
+        }
+    }
+
+    private static final class SigningKey {
+        private final String id;
+        private final SecretKeySpec spec;
+        // initialised Macs are reused; a pool rather than a ThreadLocal so virtual threads share them too
+        private final Queue<Mac> macs = new ConcurrentLinkedQueue<>();
+
+        SigningKey(byte[] key) {
+            this.spec = new SecretKeySpec(key, "HmacSHA256");
+            try {
+                this.id = B64.encodeToString(MessageDigest.getInstance("SHA-256").digest(key)).substring(0, 8);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        byte[] sign(String signingInput) {
+            Mac mac = macs.poll();
+            if (mac == null) {
+                try {
+                    mac = Mac.getInstance("HmacSHA256");
+                    mac.init(spec);
+                } catch (GeneralSecurityException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            byte[] signature = mac.doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+            macs.offer(mac);
+            return signature;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.mall.changes;
+
+/**
+ * One write to a watched collection, reduced to what listeners need to invalidate state: the collection,
+ * the kind of write and the document id as the application sees it (ObjectId ids as hex strings).
+ */
+public record ChangeEvent(String collection, Operation operation, String documentId) {
+    public enum Operation { INSERT, UPDATE, REPLACE, DELETE, INVALIDATE }
+
+    /** Events may have been lost (stream restarted without a usable resume token); drop all derived state. */
+    public static ChangeEvent invalidate() {
+        return new ChangeEvent(null, Operation.INVALIDATE, null);
+    }
+
+    public boolean isInvalidate() { return operation == Operation.INVALIDATE; }
+
+    public boolean affects(String collection) {
+        return isInvalidate() || collection.equals(this.collection);
+    }
+}
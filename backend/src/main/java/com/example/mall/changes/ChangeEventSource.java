@@ -0,0 +1,23 @@
+package com.example.mall.changes;
+
+import org.bson.BsonDocument;
+
+import java.util.List;
+
+/** Where change events come from; picked with {@code mall.changes.source}. */
+public interface ChangeEventSource {
+    /**
+     * Starts delivering batches to {@code sink} on a background thread.
+     *
+     * @param resumeToken position to continue from, or null to start at the current time
+     */
+    void start(BsonDocument resumeToken, Sink sink);
+
+    void stop();
+
+    @FunctionalInterface
+    interface Sink {
+        /** @param resumeToken position after this batch, or null when the source has none */
+        void accept(List<ChangeEvent> events, BsonDocument resumeToken);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.mall.changes;
+
+import java.util.List;
+
+/**
+ * Receives writes made to products, shops and users by any instance, including this one. Batches arrive in
+ * order on a single thread; implementations should be idempotent and skip collections they do not care about.
+ */
+public interface ChangeListener {
+    void onChanges(List<ChangeEvent> events);
+}
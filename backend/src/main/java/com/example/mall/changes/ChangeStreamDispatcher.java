@@ -0,0 +1,116 @@
+package com.example.mall.changes;
+
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Feeds writes from every instance to the registered {@link ChangeListener}s, so node-local caches and the
+ * search index follow writes made elsewhere. The position in the stream is saved per node in
+ * {@code change_stream_tokens} (at most once per {@code mall.changes.token-save-interval}), and a restarted
+ * node resumes from there, catching up on what it missed while down.
+ */
+@Component
+public class ChangeStreamDispatcher implements DisposableBean {
+    static final List<String> COLLECTIONS = List.of("products", "shops", "users");
+    private static final String TOKENS = "change_stream_tokens";
+    private static final Logger log = LoggerFactory.getLogger(ChangeStreamDispatcher.class);
+
+    private final ChangeEventSource source;
+    private final List<ChangeListener> listeners;
+    private final MongoTemplate mongoTemplate;
+    private final String nodeId;
+    private final long saveIntervalMs;
+    private BsonDocument pendingToken;
+    private long lastSaved;
+
+    public ChangeStreamDispatcher(ObjectProvider<ChangeEventSource> source, List<ChangeListener> listeners, MongoTemplate mongoTemplate,
+                                  @Value("${mall.changes.node-id:local}") String nodeId,
+                                  @Value("${mall.changes.token-save-interval:1s}") Duration saveInterval) {
+        this.source = source.getIfAvailable();
+        this.listeners = listeners;
+        this.mongoTemplate = mongoTemplate;
+        this.nodeId = nodeId;
+        this.saveIntervalMs = saveInterval.toMillis();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (source == null) return;
+        BsonDocument token = null;
+        try {
+            Document saved = mongoTemplate.findById(nodeId, Document.class, TOKENS);
+            if (saved != null && saved.get("token") instanceof Document t) token = t.toBsonDocument();
+        } catch (RuntimeException e) {
+            log.warn("Could not read change stream resume token for node {}; starting at the current time", nodeId, e);
+        }
+        log.info("Following changes to {} with {} listeners{}", COLLECTIONS, listeners.size(), token != null ? " (resuming)" : "");
+        source.start(token, this::dispatch);
+    }
+
+    @Override
+    public void destroy() {
+        if (source == null) return;
+        source.stop();
+        synchronized (this) {
+            if (pendingToken != null) saveToken(pendingToken);
+        }
+    }
+
+    private synchronized void dispatch(List<ChangeEvent> events, BsonDocument token) {
+        if (!events.isEmpty()) {
+            log.debug("Dispatching {} change events", events.size());
+            for (ChangeListener listener : listeners) {
+                try {
+                    listener.onChanges(events);
+                } catch (RuntimeException e) {
+                    log.error("Change listener {} failed on {} events", listener.getClass().getSimpleName(), events.size(), e);
+                }
+            }
+        }
+        if (token == null) {
+            if (events.stream().anyMatch(ChangeEvent::isInvalidate)) clearToken();
+            return;
+        }
+        pendingToken = token;
+        long now = System.currentTimeMillis();
+        if (now - lastSaved >= saveIntervalMs) {
+            saveToken(token);
+            lastSaved = now;
+        }
+    }
+
+    private void saveToken(BsonDocument token) {
+        try {
+            mongoTemplate.upsert(Query.query(Criteria.where("_id").is(nodeId)),
+                    new Update().set("token", Document.parse(token.toJson())).set("updatedAt", Instant.now()), TOKENS);
+            pendingToken = null;
+        } catch (RuntimeException e) {
+            log.warn("Could not save change stream resume token: {}", e.getMessage());
+        }
+    }
+
+    private void clearToken() {
+        pendingToken = null;
+        try {
+            mongoTemplate.remove(Query.query(Criteria.where("_id").is(nodeId)), TOKENS);
+        } catch (RuntimeException e) {
+            log.warn("Could not clear change stream resume token: {}", e.getMessage());
+        }
+    }
+}
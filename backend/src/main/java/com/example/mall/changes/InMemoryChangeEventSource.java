@@ -0,0 +1,86 @@
+package com.example.mall.changes;
+
+import com.example.mall.changes.ChangeEvent.Operation;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Offline stand-in for {@link MongoChangeStreamSource}: works against a standalone or in-memory Mongo with
+ * no replica set. It replays this node's own saves and deletes as they pass through the mapping events,
+ * plus whatever is handed to {@link #publish}, on a background thread like the real stream. There is no
+ * resume token, so nothing is caught up after a restart.
+ */
+@Component
+@ConditionalOnProperty(name = "mall.changes.source", havingValue = "memory")
+public class InMemoryChangeEventSource extends AbstractMongoEventListener<Object> implements ChangeEventSource {
+    private ExecutorService worker;
+    private volatile Sink sink;
+
+    @Override
+    public synchronized void start(BsonDocument resumeToken, Sink sink) {
+        this.worker = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "change-stream");
+            t.setDaemon(true);
+            return t;
+        });
+        this.sink = sink;
+    }
+
+    @Override
+    public synchronized void stop() {
+        sink = null;
+        if (worker != null) worker.shutdown();
+    }
+
+    /** Delivers events as if another instance had written them. */
+    public void publish(List<ChangeEvent> events) {
+        Sink target = sink;
+        if (target == null || events.isEmpty()) return;
+        worker.execute(() -> target.accept(events, null));
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Object> event) {
+        Object id = event.getDocument() == null ? null : event.getDocument().get("_id");
+        if (id != null && watched(event.getCollectionName())) {
+            publish(List.of(new ChangeEvent(event.getCollectionName(), Operation.REPLACE, idString(id))));
+        }
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Object> event) {
+        Document query = event.getSource();
+        if (query == null || !watched(event.getCollectionName())) return;
+        // by-id deletes and the batched {_id: {$in: [...]}} deletes; anything else cannot be mapped to ids
+        List<ChangeEvent> events = new ArrayList<>();
+        Object id = query.get("_id");
+        if (id instanceof Document in && in.get("$in") instanceof Collection<?> ids) {
+            ids.forEach(each -> events.add(new ChangeEvent(event.getCollectionName(), Operation.DELETE, idString(each))));
+        } else if (id != null) {
+            events.add(new ChangeEvent(event.getCollectionName(), Operation.DELETE, idString(id)));
+        } else {
+            events.add(ChangeEvent.invalidate());
+        }
+        publish(events);
+    }
+
+    private static boolean watched(String collection) {
+        return ChangeStreamDispatcher.COLLECTIONS.contains(collection);
+    }
+
+    private static String idString(Object id) {
+        return id instanceof ObjectId oid ? oid.toHexString() : String.valueOf(id);
+    }
+}
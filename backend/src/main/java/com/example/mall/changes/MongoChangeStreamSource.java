@@ -0,0 +1,140 @@
+package com.example.mall.changes;
+
+import com.example.mall.changes.ChangeEvent.Operation;
+import com.mongodb.MongoException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tails one change stream on the database, filtered to the watched collections and projected down to
+ * operation, namespace and document key so updates do not ship their field changes. Needs a replica set
+ * (any Atlas cluster, or a single-node {@code mongod --replSet}).
+ */
+@Component
+@ConditionalOnProperty(name = "mall.changes.source", havingValue = "mongo", matchIfMissing = true)
+public class MongoChangeStreamSource implements ChangeEventSource {
+    private static final Logger log = LoggerFactory.getLogger(MongoChangeStreamSource.class);
+    // resume point is gone from the oplog, or the stream can never be resumed
+    private static final int HISTORY_LOST = 286;
+    private static final int FATAL = 280;
+    private static final long MAX_BACKOFF_MS = 60_000;
+
+    private final MongoTemplate mongoTemplate;
+    private final int batchSize;
+    private volatile boolean running;
+    private Thread thread;
+
+    public MongoChangeStreamSource(MongoTemplate mongoTemplate, @Value("${mall.changes.batch-size:500}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Override
+    public synchronized void start(BsonDocument resumeToken, Sink sink) {
+        running = true;
+        thread = new Thread(() -> tail(resumeToken, sink), "change-stream");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (thread == null) return;
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5)); // the cursor wakes up at least once per second
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void tail(BsonDocument token, Sink sink) {
+        long backoff = 1000;
+        while (running) {
+            try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = open(token).cursor()) {
+                backoff = 1000;
+                while (running) {
+                    List<ChangeEvent> batch = new ArrayList<>();
+                    ChangeStreamDocument<Document> change;
+                    while (batch.size() < batchSize && (change = cursor.tryNext()) != null) {
+                        ChangeEvent event = toEvent(change);
+                        if (event != null) batch.add(event);
+                    }
+                    // also advances through quiet periods (post-batch token), so a restart never replays far back
+                    BsonDocument next = cursor.getResumeToken();
+                    if (!batch.isEmpty() || (next != null && !next.equals(token))) {
+                        sink.accept(batch, next);
+                        token = next;
+                    }
+                    if (batch.stream().anyMatch(ChangeEvent::isInvalidate)) {
+                        token = null; // state was dropped anyway; reopen at the current time
+                        break;
+                    }
+                }
+            } catch (MongoException e) {
+                if (!running) return;
+                if (e.getCode() == HISTORY_LOST || e.getCode() == FATAL) {
+                    log.warn("Change stream cannot resume ({}); restarting from now and invalidating local state", e.getMessage());
+                    token = null;
+                    sink.accept(List.of(ChangeEvent.invalidate()), null);
+                    continue;
+                }
+                log.warn("Change stream failed, retrying in {} ms: {}", backoff, e.getMessage());
+                sleep(backoff);
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+            }
+        }
+    }
+
+    private ChangeStreamIterable<Document> open(BsonDocument token) {
+        ChangeStreamIterable<Document> stream = mongoTemplate.getDb().watch(List.of(
+                        Aggregates.match(Filters.in("ns.coll", ChangeStreamDispatcher.COLLECTIONS)),
+                        Aggregates.project(Projections.include("operationType", "ns", "documentKey"))))
+                .batchSize(batchSize)
+                .maxAwaitTime(1, TimeUnit.SECONDS);
+        return token != null ? stream.resumeAfter(token) : stream;
+    }
+
+    private static ChangeEvent toEvent(ChangeStreamDocument<Document> change) {
+        Operation operation = switch (change.getOperationType()) {
+            case INSERT -> Operation.INSERT;
+            case UPDATE -> Operation.UPDATE;
+            case REPLACE -> Operation.REPLACE;
+            case DELETE -> Operation.DELETE;
+            case DROP, RENAME, DROP_DATABASE, INVALIDATE -> Operation.INVALIDATE;
+            default -> null;
+        };
+        if (operation == null) return null;
+        if (operation == Operation.INVALIDATE) return ChangeEvent.invalidate();
+        BsonValue id = change.getDocumentKey() == null ? null : change.getDocumentKey().get("_id");
+        if (id == null) return null;
+        String documentId = id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.isString() ? id.asString().getValue() : id.toString();
+        return new ChangeEvent(change.getNamespace().getCollectionName(), operation, documentId);
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
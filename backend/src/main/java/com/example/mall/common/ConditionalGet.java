@@ -0,0 +1,72 @@
+package com.example.mall.common;
+
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.function.Supplier;
+
+/**
+ * {@code ETag}/{@code Last-Modified} revalidation for GETs. The validators are checked before the body is
+ * loaded, so a 304 costs neither the document reads nor the serialization.
+ *
+ * <p>List validators come from the matching document count plus the newest {@code updatedAt}: any insert,
+ * update or delete under the filter changes one of the two. The newest-document probe is a one-key walk of
+ * an index ending in {@code updatedAt: -1} with the filter fields in front ({@code updatedAt} alone for the
+ * unfiltered lists; {@code shopId}, {@code category} or both for the filtered product lists), so a filter
+ * without such an index would scan and sort instead. The same validators cover the JSON and Smile
+ * renderings, so responses vary by {@code Accept} for shared caches.
+ */
+@Component
+public class ConditionalGet {
+    private final MongoTemplate mongoTemplate;
+
+    public ConditionalGet(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /** For one document whose {@code version} (may be null) and {@code updatedAt} change on every write. */
+    public <T> ResponseEntity<T> single(WebRequest request, Object version, Instant updatedAt, T body) {
+        // written before auditing, nothing to validate against
+        if (updatedAt == null) return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(body);
+        if (request.checkNotModified(singleETag(version, updatedAt), updatedAt.toEpochMilli())) return ResponseEntity.status(HttpStatus.NOT_MODIFIED).varyBy(HttpHeaders.ACCEPT).build();
+        return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(body);
+    }
+
+    /** For a list of {@code type} documents matching {@code filter} (null for the whole collection). */
+    public <T> ResponseEntity<T> list(WebRequest request, Class<?> type, Criteria filter, Supplier<T> body) {
+        Query query = filter == null ? new Query() : Query.query(filter);
+        long count = filter == null ? mongoTemplate.estimatedCount(type) : mongoTemplate.count(query, type);
+        Document latest = count == 0 ? null : mongoTemplate.findOne(newest(query), Document.class, mongoTemplate.getCollectionName(type));
+        long lastModified = lastModified(latest);
+        if (request.checkNotModified(listETag(count, lastModified), lastModified)) return ResponseEntity.status(HttpStatus.NOT_MODIFIED).varyBy(HttpHeaders.ACCEPT).build();
+        return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(body.get());
+    }
+
+    static String singleETag(Object version, Instant updatedAt) {
+        return "W/\"" + (version == null ? "" : version + "-") + Long.toHexString(updatedAt.toEpochMilli()) + "\"";
+    }
+
+    static String listETag(long count, long lastModified) {
+        return "W/\"" + count + "-" + Long.toHexString(Math.max(0, lastModified)) + "\"";
+    }
+
+    static Query newest(Query query) {
+        Query newest = Query.of(query).with(Sort.by(Sort.Direction.DESC, "updatedAt")).limit(1);
+        newest.fields().include("updatedAt");
+        return newest;
+    }
+
+    static long lastModified(Document latest) {
+        return latest != null && latest.get("updatedAt") instanceof Date d ? d.getTime() : -1;
+    }
+}
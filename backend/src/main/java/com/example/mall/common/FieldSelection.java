@@ -0,0 +1,43 @@
+package com.example.mall.common;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Whitelist behind a {@code fields=} list parameter. The repositories include only the chosen fields in the
+ * Mongo projection, and {@link #render} serializes just those, in the order they were asked for.
+ */
+public final class FieldSelection<T> {
+    private final Map<String, Function<T, ?>> allowed = new LinkedHashMap<>();
+
+    public FieldSelection<T> allow(String name, Function<T, ?> getter) {
+        allowed.put(name, getter);
+        return this;
+    }
+
+    /** Comma-separated names, duplicates ignored; {@link IllegalArgumentException} for an unknown or empty list. */
+    public List<String> parse(String fields) {
+        List<String> selected = new ArrayList<>();
+        for (String name : fields.split(",")) {
+            name = name.trim();
+            if (name.isEmpty() || selected.contains(name)) continue;
+            if (!allowed.containsKey(name)) throw new IllegalArgumentException("Unknown field '" + name + "'; allowed: " + String.join(",", allowed.keySet()));
+            selected.add(name);
+        }
+        if (selected.isEmpty()) throw new IllegalArgumentException("fields must name at least one of: " + String.join(",", allowed.keySet()));
+        return selected;
+    }
+
+    public List<Map<String, Object>> render(List<T> items, List<String> fields) {
+        List<Map<String, Object>> out = new ArrayList<>(items.size());
+        for (T item : items) {
+            Map<String, Object> row = new LinkedHashMap<>(fields.size() * 2);
+            for (String field : fields) row.put(field, allowed.get(field).apply(item));
+            out.add(row);
+        }
+        return out;
+    }
+}
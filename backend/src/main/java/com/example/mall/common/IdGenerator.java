@@ -0,0 +1,42 @@
+package com.example.mall.common;
+
+import org.bson.types.ObjectId;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Source of new document ids, chosen with {@code mall.ids.strategy}. Ids are assigned once, when a document is
+ * first inserted (see {@code config.IdAssignmentCallback}), never when an entity is constructed or read.
+ */
+@FunctionalInterface
+public interface IdGenerator {
+    String next();
+
+    /**
+     * 24-char hex ObjectId (default). Spring Data stores a String {@code @Id} holding a valid ObjectId as a
+     * 12-byte ObjectId, so {@code _id} and every index containing it shrink from a 36-char string, and ids
+     * are time-ordered so inserts append to the right edge of the {@code _id} B-tree.
+     */
+    IdGenerator OBJECT_ID = () -> new ObjectId().toHexString();
+
+    /** RFC 9562 UUIDv7: time-ordered like ObjectId but stored as a 36-char string, for ids that must stay UUIDs. */
+    IdGenerator UUID_V7 = () -> {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long msb = (System.currentTimeMillis() << 16) | 0x7000L | (random.nextLong() & 0x0FFFL);
+        long lsb = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb).toString();
+    };
+
+    /** The previous behaviour: random v4 UUID strings (SecureRandom, no insert locality). */
+    IdGenerator RANDOM_UUID = () -> UUID.randomUUID().toString();
+
+    static IdGenerator of(String strategy) {
+        return switch (strategy.trim().toLowerCase()) {
+            case "objectid" -> OBJECT_ID;
+            case "uuidv7" -> UUID_V7;
+            case "uuid" -> RANDOM_UUID;
+            default -> throw new IllegalArgumentException("Unknown mall.ids.strategy '" + strategy + "' (objectid, uuidv7, uuid)");
+        };
+    }
+}
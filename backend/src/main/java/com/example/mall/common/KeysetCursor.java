@@ -0,0 +1,81 @@
+package com.example.mall.common;
+
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque cursor over the {@code _id} keyset, or over a numeric sort key followed by {@code _id}. Clients get
+ * it as a URL-safe token and hand it back unchanged; the server resumes with an {@code _id > last} range scan
+ * instead of skipping earlier pages.
+ */
+public final class KeysetCursor {
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private KeysetCursor() {}
+
+    /** Last row of a page ordered by a numeric key, then {@code _id}. */
+    public record Position(long key, String id) {}
+
+    public static String encode(String id) {
+        return ENCODER.encodeToString(id.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the last id of the previous page, or null for the first page
+     * @throws IllegalArgumentException when the token was not produced by {@link #encode}
+     */
+    public static String decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String id = new String(DECODER.decode(cursor), StandardCharsets.UTF_8);
+        if (id.isBlank()) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        return id;
+    }
+
+    public static String encode(Position position) {
+        return encode(position.key() + ":" + position.id());
+    }
+
+    /**
+     * @return the position the previous page ended at, or null for the first page
+     * @throws IllegalArgumentException when the token was not produced by {@link #encode(Position)}
+     */
+    public static Position decodePosition(String cursor) {
+        String value = decode(cursor);
+        if (value == null) {
+            return null;
+        }
+        int sep = value.indexOf(':');
+        if (sep <= 0 || sep == value.length() - 1) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        return new Position(Long.parseLong(value.substring(0, sep)), value.substring(sep + 1));
+    }
+
+    /**
+     * {@code _id > afterId}. Collections can hold legacy string ids next to ObjectIds; BSON sorts all strings
+     * before all ObjectIds but a {@code $gt} on a string only matches strings, so a page that resumes after a
+     * legacy id also has to admit every ObjectId.
+     */
+    public static Criteria idAfter(String afterId) {
+        if (ObjectId.isValid(afterId)) {
+            return Criteria.where("id").gt(afterId);
+        }
+        return new Criteria().orOperator(Criteria.where("id").gt(afterId), Criteria.where("id").type(7));
+    }
+
+    /** {@code _id < beforeId}, for descending pages; the mirror image of {@link #idAfter}. */
+    public static Criteria idBefore(String beforeId) {
+        if (ObjectId.isValid(beforeId)) {
+            return new Criteria().orOperator(Criteria.where("id").lt(beforeId), Criteria.where("id").type(2));
+        }
+        return Criteria.where("id").lt(beforeId);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.mall.common;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Writes a repository {@link Stream} to the response as newline-delimited JSON while the Mongo cursor
+ * is being iterated, so only the current batch of documents is ever held in memory.
+ */
+@Component
+public class NdjsonExporter {
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    public static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType(APPLICATION_NDJSON_VALUE);
+
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter writer;
+
+    public NdjsonExporter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        // let the generator and servlet buffers decide when to hit the socket instead of flushing per document
+        this.writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /** The supplier is invoked on the async response thread so the cursor lives exactly as long as the write. */
+    public <T> ResponseEntity<StreamingResponseBody> export(Supplier<Stream<T>> source) {
+        StreamingResponseBody body = out -> {
+            try (Stream<T> stream = source.get();
+                 JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+                gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                gen.setRootValueSeparator(null); // records are terminated by '\n' below instead
+                Iterator<T> it = stream.iterator();
+                boolean first = true;
+                while (it.hasNext()) {
+                    writer.writeValue(gen, it.next());
+                    gen.writeRaw('\n');
+                    if (first) {
+                        // get the first record to the client as soon as the cursor yields it
+                        gen.flush();
+                        first = false;
+                    }
+                }
+                gen.flush();
+            }
+        };
+        return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(body);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.mall.common;
+
+import org.bson.Document;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.function.Supplier;
+
+/** {@link ConditionalGet} for the reactive profile: the same validators, read without blocking. */
+@Component
+@Profile("reactive")
+public class ReactiveConditionalGet {
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public ReactiveConditionalGet(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    public <T> ResponseEntity<T> single(ServerWebExchange exchange, Object version, Instant updatedAt, T body) {
+        if (updatedAt == null) return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(body);
+        if (exchange.checkNotModified(ConditionalGet.singleETag(version, updatedAt), updatedAt)) return ResponseEntity.status(HttpStatus.NOT_MODIFIED).varyBy(HttpHeaders.ACCEPT).build();
+        return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(body);
+    }
+
+    /** The body is only subscribed to when the validators do not match. */
+    public <T> Mono<ResponseEntity<T>> list(ServerWebExchange exchange, Class<?> type, Criteria filter, Supplier<Mono<T>> body) {
+        Query query = filter == null ? new Query() : Query.query(filter);
+        Mono<Long> count = filter == null ? mongoTemplate.estimatedCount(type) : mongoTemplate.count(query, type);
+        return count.flatMap(n -> (n == 0 ? Mono.<Document>empty() : mongoTemplate.findOne(ConditionalGet.newest(query), Document.class, mongoTemplate.getCollectionName(type)))
+                .map(ConditionalGet::lastModified).defaultIfEmpty(-1L)
+                .flatMap(lastModified -> {
+                    if (exchange.checkNotModified(ConditionalGet.listETag(n, lastModified), Instant.ofEpochMilli(lastModified))) {
+                        return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).varyBy(HttpHeaders.ACCEPT).<T>build());
+                    }
+                    return body.get().map(b -> ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(b));
+                }));
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.mall.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Read-through caches in front of the shop/product repositories. Sizing and TTL come from
+ * {@code spring.cache.caffeine.spec}; hit/miss/eviction counters are published as the {@code cache.*}
+ * metrics under {@code /actuator/metrics}.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    public static final String SHOPS = "shops";
+    public static final String SHOP_EXISTS = "shopExists";
+    public static final String PRODUCTS = "products";
+}
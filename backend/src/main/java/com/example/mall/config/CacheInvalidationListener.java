@@ -0,0 +1,39 @@
+package com.example.mall.config;
+
+import com.example.mall.changes.ChangeEvent;
+import com.example.mall.changes.ChangeListener;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/** Evicts the {@link CacheConfig} entries of products and shops written by any instance. */
+@Component
+public class CacheInvalidationListener implements ChangeListener {
+    private final Cache products;
+    private final Cache shops;
+    private final Cache shopExists;
+
+    public CacheInvalidationListener(CacheManager cacheManager) {
+        this.products = cacheManager.getCache(CacheConfig.PRODUCTS);
+        this.shops = cacheManager.getCache(CacheConfig.SHOPS);
+        this.shopExists = cacheManager.getCache(CacheConfig.SHOP_EXISTS);
+    }
+
+    @Override
+    public void onChanges(List<ChangeEvent> events) {
+        for (ChangeEvent event : events) {
+            if (event.isInvalidate()) {
+                products.clear();
+                shops.clear();
+                shopExists.clear();
+            } else if ("products".equals(event.collection())) {
+                products.evict(event.documentId());
+            } else if ("shops".equals(event.collection())) {
+                shops.evict(event.documentId());
+                shopExists.evict(event.documentId());
+            }
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.mall.config;
+
+import com.example.mall.product.Product;
+import com.example.mall.user.PasswordService;
+import com.example.mall.user.User;
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import org.bson.BsonType;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/** Idempotent fixes for documents written before a schema change, run in order by {@link MongoBootstrap}. */
+@Configuration
+public class DataMigrations {
+    private static final Logger log = LoggerFactory.getLogger(DataMigrations.class);
+    private static final int INDEX_NOT_FOUND = 27;
+    private static final int PRICE_BATCH_SIZE = 1000;
+
+    /**
+     * Products saved before {@code @Version} was added have no version field, which Spring Data would read
+     * as "new" and try to insert again on the next save.
+     */
+    @Bean
+    MongoBootstrap.Migration backfillProductVersion(MongoTemplate mongoTemplate) {
+        return () -> {
+            long updated = mongoTemplate.updateMulti(new Query(Criteria.where("version").exists(false)),
+                    new Update().set("version", 0L), Product.class).getModifiedCount();
+            if (updated > 0) {
+                log.info("Initialised version on {} products", updated);
+            }
+        };
+    }
+
+    /**
+     * Products written before {@code priceCents} only have the string {@code price}, which Mongo compares as text.
+     * Fills in the numeric copy with unordered bulk updates, each conditional on the price it was computed from
+     * so a concurrent price change is not overwritten, and drops the old indexes on the string price.
+     */
+    @Bean
+    MongoBootstrap.Migration backfillPriceCents(MongoTemplate mongoTemplate) {
+        return () -> {
+            MongoCollection<Document> products = mongoTemplate.getCollection("products");
+            for (String obsolete : List.of("shopId_category_price", "category_price")) {
+                try {
+                    products.dropIndex(obsolete);
+                } catch (MongoCommandException e) {
+                    if (e.getErrorCode() != INDEX_NOT_FOUND) throw e;
+                }
+            }
+            List<UpdateOneModel<Document>> batch = new ArrayList<>(PRICE_BATCH_SIZE);
+            int updated = 0;
+            int skipped = 0;
+            try (MongoCursor<Document> missing = products.find(Filters.and(Filters.exists("priceCents", false), Filters.ne("price", null)))
+                    .projection(Projections.include("price")).iterator()) {
+                while (missing.hasNext()) {
+                    Document doc = missing.next();
+                    Object price = doc.get("price");
+                    Long cents;
+                    try {
+                        cents = Product.toCents(price instanceof Decimal128 d ? d.bigDecimalValue() : new BigDecimal(price.toString()));
+                    } catch (ArithmeticException | NumberFormatException e) {
+                        skipped++;
+                        continue;
+                    }
+                    batch.add(new UpdateOneModel<>(Filters.and(Filters.eq("_id", doc.get("_id")), Filters.eq("price", price)),
+                            Updates.set("priceCents", cents)));
+                    if (batch.size() == PRICE_BATCH_SIZE) {
+                        updated += products.bulkWrite(batch, new BulkWriteOptions().ordered(false)).getModifiedCount();
+                        batch.clear();
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                updated += products.bulkWrite(batch, new BulkWriteOptions().ordered(false)).getModifiedCount();
+            }
+            if (updated > 0 || skipped > 0) {
+                log.info("Initialised priceCents on {} products; {} had a price that is not a number", updated, skipped);
+            }
+        };
+    }
+
+    /** Users created before passwords were hashed still have plaintext in {@code password}. */
+    @Bean
+    MongoBootstrap.Migration hashPlaintextPasswords(MongoTemplate mongoTemplate, PasswordService passwords) {
+        return () -> {
+            Query legacy = new Query(Criteria.where("password").exists(true).not().regex("^\\$2[aby]?\\$"));
+            legacy.fields().include("password");
+            int updated = 0;
+            for (User user : mongoTemplate.find(legacy, User.class)) {
+                mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(user.getId()).and("password").is(user.getPassword())),
+                        new Update().set("password", passwords.hash(user.getPassword())), User.class);
+                updated++;
+            }
+            if (updated > 0) {
+                log.info("Hashed {} plaintext passwords", updated);
+            }
+        };
+    }
+
+    /**
+     * Opt-in ({@code mall.ids.migrate-legacy=true}): re-keys shops and products that still have random UUID
+     * string ids onto ObjectIds and repoints {@code products.shopId}. This changes public ids, so clients
+     * holding old ids must re-fetch; paging and lookups work on mixed collections without it. Copying and
+     * deleting under live writes would lose them, so it makes the bootstrap blocking.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "mall.ids.migrate-legacy", havingValue = "true")
+    MongoBootstrap.Migration migrateLegacyIds(MongoTemplate mongoTemplate) {
+        return MongoBootstrap.Migration.beforeServing(() -> {
+            MongoCollection<Document> products = mongoTemplate.getCollection("products");
+            int shops = rekey(mongoTemplate.getCollection("shops"),
+                    (oldId, newId) -> products.updateMany(Filters.eq("shopId", oldId), Updates.set("shopId", newId)));
+            int rekeyedProducts = rekey(products, (oldId, newId) -> {});
+            if (shops + rekeyedProducts > 0) {
+                log.info("Moved {} shops and {} products from UUID string ids to ObjectIds", shops, rekeyedProducts);
+            }
+        });
+    }
+
+    /**
+     * Copies each string-{@code _id} document under a new ObjectId, remembering the old id in {@code legacyId},
+     * repoints references, then deletes the original. After a crash the rerun finds the copy by {@code legacyId}
+     * and finishes the move instead of copying twice.
+     */
+    private static int rekey(MongoCollection<Document> collection, BiConsumer<String, String> repoint) {
+        collection.createIndex(Indexes.ascending("legacyId"), new IndexOptions().sparse(true));
+        int moved = 0;
+        try (MongoCursor<Document> legacy = collection.find(Filters.type("_id", BsonType.STRING)).iterator()) {
+            while (legacy.hasNext()) {
+                Document doc = legacy.next();
+                String oldId = doc.getString("_id");
+                Document copy = collection.find(Filters.eq("legacyId", oldId)).first();
+                ObjectId newId = copy != null ? copy.getObjectId("_id") : new ObjectId();
+                if (copy == null) {
+                    collection.insertOne(new Document(doc).append("_id", newId).append("legacyId", oldId));
+                }
+                repoint.accept(oldId, newId.toHexString());
+                collection.deleteOne(Filters.eq("_id", oldId));
+                moved++;
+            }
+        }
+        return moved;
+    }
+}
@@ -1,25 +1,34 @@
 package com.example.mall.config;
 
+import com.example.mall.user.PasswordService;
 import com.example.mall.user.User;
 import com.example.mall.user.UserRepository;
-import org.springframework.boot.CommandLineRunner;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
 
-@Configuration
+/** Creates the default admin; run by {@link MongoBootstrap} once the user indexes exist. */
+@Component
 public class DataSeeder {
-    @Bean
-    CommandLineRunner seedDefaultUser(UserRepository users) {
-        return args -> {
-            users.findByEmail("admin@example.com").orElseGet(() -> {
-                User u = new User();
-                u.setEmail("admin@example.com");
-                u.setName("Admin");
-                u.setPassword("sasitha");
-                u.setPhone("+94 77 000 0000");
-                u.setRole("admin");
-                return users.save(u);
-            });
-        };
+    private final UserRepository users;
+    private final PasswordService passwords;
+
+    public DataSeeder(UserRepository users, PasswordService passwords) {
+        this.users = users;
+        this.passwords = passwords;
+    }
+
+    public void seedDefaultUser() {
+        if (users.findByEmail("admin@example.com").isPresent()) return;
+        User u = new User();
+        u.setEmail("admin@example.com");
+        u.setName("Admin");
+        u.setPassword(passwords.hash("sasitha"));
+        u.setPhone("+94 77 000 0000");
+        u.setRole("admin");
+        try {
+            users.save(u);
+        } catch (DuplicateKeyException e) {
+            // another instance starting at the same time got there first
+        }
     }
 }
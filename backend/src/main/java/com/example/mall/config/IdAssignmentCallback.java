@@ -0,0 +1,37 @@
+package com.example.mall.config;
+
+import com.example.mall.common.IdGenerator;
+import com.example.mall.product.Product;
+import com.example.mall.shop.Shop;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertCallback;
+import org.springframework.stereotype.Component;
+
+/**
+ * Gives new products and shops an id from the configured {@link IdGenerator} right before their first insert
+ * (single or bulk; {@link ReactiveIdAssignmentCallback} covers the reactive template). Runs after auditing, which decides whether a shop is new by its id still being null.
+ */
+@Component
+public class IdAssignmentCallback implements BeforeConvertCallback<Object>, Ordered {
+    private final IdGenerator ids;
+
+    public IdAssignmentCallback(@Value("${mall.ids.strategy:objectid}") String strategy) {
+        this.ids = IdGenerator.of(strategy);
+    }
+
+    @Override
+    public Object onBeforeConvert(Object entity, String collection) {
+        if (entity instanceof Product product && product.getId() == null) {
+            product.setId(ids.next());
+        } else if (entity instanceof Shop shop && shop.getId() == null) {
+            shop.setId(ids.next());
+        }
+        return entity;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.mall.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.mapping.PropertyPath;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.query.parser.Part;
+import org.springframework.data.repository.query.parser.PartTree;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Logs derived repository queries that filter on fields no index leads with, i.e. queries that will
+ * fall back to a collection scan. Methods without criteria (findAll/streamAllBy) scan on purpose and
+ * are not reported. Run by {@link MongoBootstrap} after the indexes are created.
+ */
+@Component
+public class IndexCoverageCheck {
+    private static final Logger log = LoggerFactory.getLogger(IndexCoverageCheck.class);
+
+    private final ApplicationContext context;
+    private final MongoTemplate mongoTemplate;
+
+    public IndexCoverageCheck(ApplicationContext context, MongoTemplate mongoTemplate) {
+        this.context = context;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    public void check() {
+        Repositories repositories = new Repositories(context);
+        for (Class<?> domainType : repositories) {
+            MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(domainType);
+            List<IndexInfo> indexes;
+            try {
+                indexes = mongoTemplate.indexOps(entity.getCollection()).getIndexInfo();
+            } catch (RuntimeException e) {
+                log.warn("Index check skipped for {}: {}", entity.getCollection(), e.getMessage());
+                continue;
+            }
+            RepositoryInformation info = repositories.getRequiredRepositoryInformation(domainType);
+            for (Method method : info.getQueryMethods()) {
+                Set<String> fields = filterFields(method, domainType, entity);
+                if (!fields.isEmpty() && indexes.stream().noneMatch(index -> leadsWithAnyOf(index, fields))) {
+                    log.warn("{}.{} filters on {} but no index on '{}' leads with any of those fields",
+                            info.getRepositoryInterface().getSimpleName(), method.getName(), fields, entity.getCollection());
+                }
+            }
+        }
+    }
+
+    private static Set<String> filterFields(Method method, Class<?> domainType, MongoPersistentEntity<?> entity) {
+        Set<String> fields = new LinkedHashSet<>();
+        PartTree tree;
+        try {
+            tree = new PartTree(method.getName(), domainType);
+        } catch (RuntimeException e) {
+            return fields; // @Query or otherwise non-derived method
+        }
+        for (Part part : tree.getParts()) {
+            PropertyPath path = part.getProperty();
+            MongoPersistentProperty property = entity.getPersistentProperty(path.getSegment());
+            String field = property != null ? property.getFieldName() : path.getSegment();
+            fields.add(path.hasNext() ? field + "." + path.next().toDotPath() : field);
+        }
+        return fields;
+    }
+
+    private static boolean leadsWithAnyOf(IndexInfo index, Set<String> fields) {
+        List<IndexField> keys = index.getIndexFields();
+        return !keys.isEmpty() && fields.contains(keys.get(0).getKey());
+    }
+}
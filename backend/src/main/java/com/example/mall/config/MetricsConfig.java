@@ -0,0 +1,113 @@
+package com.example.mall.config;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.actuate.metrics.data.DefaultRepositoryTagsProvider;
+import org.springframework.boot.actuate.metrics.data.RepositoryTagsProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.repository.core.support.AbstractRepositoryMetadata;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.http.server.observation.ServerRequestObservationConvention;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Metric tags and extra meters on top of Boot's defaults, which already time every request
+ * ({@code http.server.requests}), every repository call ({@code spring.data.repository.invocations}) and
+ * every driver command and pool event ({@code mongodb.driver.*}). Histograms for these are switched on in
+ * application.properties.
+ */
+@Configuration
+public class MetricsConfig {
+    static final String RESULT_SIZE = "mall.repository.results";
+
+    /** Adds {@code handler} (e.g. {@code ProductController.list}) so each controller method is its own series. */
+    @Bean
+    @Profile("!reactive")
+    ServerRequestObservationConvention handlerTaggingConvention() {
+        return new DefaultServerRequestObservationConvention() {
+            @Override
+            public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+                Object handler = context.getCarrier().getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+                String name = handler instanceof HandlerMethod method
+                        ? method.getBeanType().getSimpleName() + "." + method.getMethod().getName() : "none";
+                return super.getLowCardinalityKeyValues(context).and(KeyValue.of("handler", name));
+            }
+        };
+    }
+
+    /** Tags repository timings with the Mongo collection and the repository method as {@code operation}. */
+    @Bean
+    RepositoryTagsProvider mongoRepositoryTagsProvider(MongoMappingContext mappingContext) {
+        CollectionNames collections = new CollectionNames(mappingContext);
+        DefaultRepositoryTagsProvider defaults = new DefaultRepositoryTagsProvider();
+        return invocation -> Tags.of(defaults.repositoryTags(invocation))
+                .and("collection", collections.of(invocation.getRepositoryInterface()))
+                .and("operation", invocation.getMethod().getName());
+    }
+
+    /**
+     * Records how many documents each collection-returning repository call (findAll, findByShopId, ...)
+     * returned, so unbounded list endpoints show up before they hurt p99.
+     */
+    @Bean
+    static BeanPostProcessor repositoryResultSizeRecorder(ObjectProvider<MeterRegistry> registry,
+                                                          ObjectProvider<MongoMappingContext> mappingContext) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor((proxy, info) -> {
+                        String collection = new CollectionNames(mappingContext.getObject()).of(info.getRepositoryInterface());
+                        Map<Method, DistributionSummary> summaries = new ConcurrentHashMap<>();
+                        proxy.addAdvice((MethodInterceptor) call -> {
+                            Object result = call.proceed();
+                            if (result instanceof Collection<?> items) {
+                                summaries.computeIfAbsent(call.getMethod(), m -> DistributionSummary.builder(RESULT_SIZE)
+                                        .description("Documents returned per repository call")
+                                        .baseUnit("documents")
+                                        .tag("collection", collection)
+                                        .tag("operation", m.getName())
+                                        .register(registry.getObject())).record(items.size());
+                            }
+                            return result;
+                        });
+                    }));
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static final class CollectionNames {
+        private final MongoMappingContext mappingContext;
+        private final Map<Class<?>, String> names = new ConcurrentHashMap<>();
+
+        CollectionNames(MongoMappingContext mappingContext) {
+            this.mappingContext = mappingContext;
+        }
+
+        String of(Class<?> repositoryInterface) {
+            return names.computeIfAbsent(repositoryInterface, type -> {
+                Class<?> domainType = AbstractRepositoryMetadata.getMetadata(type).getDomainType();
+                return mappingContext.getRequiredPersistentEntity(domainType).getCollection();
+            });
+        }
+    }
+}
@@ -1,9 +1,17 @@
 package com.example.mall.config;
 
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import org.springframework.data.mongodb.config.EnableMongoAuditing;
+import org.springframework.data.mongodb.config.EnableReactiveMongoAuditing;
 
 @Configuration
 @EnableMongoAuditing
 public class MongoAuditingConfig {
+    /** Reactive repositories use their own entity callback; without it their writes leave {@code updatedAt} unset. */
+    @Configuration
+    @Profile("reactive")
+    @EnableReactiveMongoAuditing
+    static class Reactive {
+    }
 }
@@ -0,0 +1,182 @@
+package com.example.mall.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.LivenessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Startup work that needs Mongo but not before the first request: the {@link DataMigrations}, creating the
+ * indexes declared on the mapped documents (in place of {@code spring.data.mongodb.auto-index-creation}, which
+ * does its round trips during context refresh), seeding the default admin and the {@link IndexCoverageCheck}.
+ *
+ * <p>With {@code mall.startup.bootstrap=async} this runs on its own thread once the context is up, and this
+ * indicator keeps the readiness group OUT_OF_SERVICE until it is done. Failures are retried with backoff;
+ * after {@code mall.startup.bootstrap-attempts} the liveness state goes BROKEN so the instance is replaced.
+ * {@code blocking} runs it before the web server starts and fails startup instead. A migration that
+ * {@linkplain Migration#mustFinishBeforeServing must finish before serving} forces {@code blocking}.
+ *
+ * <p>Background jobs that read what the bootstrap writes (the search index scan, the shop stats rollup,
+ * resuming shop deletions) listen for {@link Completed} rather than {@code ApplicationReadyEvent}.
+ */
+@Component
+public class MongoBootstrap implements HealthIndicator, SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(MongoBootstrap.class);
+    private static final long MAX_BACKOFF_MS = 30_000;
+
+    enum State { PENDING, RUNNING, DONE, FAILED }
+
+    /** An idempotent data fix; runs before the indexes are created, in bean declaration order. */
+    @FunctionalInterface
+    public interface Migration {
+        void run();
+
+        /** True for migrations that move documents, which must not race live requests. */
+        default boolean mustFinishBeforeServing() { return false; }
+
+        static Migration beforeServing(Migration migration) {
+            return new Migration() {
+                @Override public void run() { migration.run(); }
+                @Override public boolean mustFinishBeforeServing() { return true; }
+            };
+        }
+    }
+
+    /** Published once the bootstrap is done, on the thread that ran it. */
+    public record Completed() {}
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoMappingContext mappingContext;
+    private final List<Migration> migrations;
+    private final DataSeeder seeder;
+    private final IndexCoverageCheck indexCoverageCheck;
+    private final ApplicationEventPublisher events;
+    private final boolean async;
+    private final int maxAttempts;
+    private volatile State state = State.PENDING;
+    private volatile String lastError;
+    private volatile boolean started;
+
+    public MongoBootstrap(MongoTemplate mongoTemplate, MongoMappingContext mappingContext, List<Migration> migrations,
+                          DataSeeder seeder, IndexCoverageCheck indexCoverageCheck, ApplicationEventPublisher events,
+                          @Value("${mall.startup.bootstrap:async}") String mode,
+                          @Value("${mall.startup.bootstrap-attempts:10}") int maxAttempts) {
+        this.mongoTemplate = mongoTemplate;
+        this.mappingContext = mappingContext;
+        this.migrations = migrations;
+        this.seeder = seeder;
+        this.indexCoverageCheck = indexCoverageCheck;
+        this.events = events;
+        boolean exclusive = migrations.stream().anyMatch(Migration::mustFinishBeforeServing);
+        if (exclusive && !"blocking".equalsIgnoreCase(mode)) {
+            log.info("A migration must finish before requests are served; running the Mongo bootstrap blocking");
+        }
+        this.async = !exclusive && !"blocking".equalsIgnoreCase(mode);
+        this.maxAttempts = Math.max(1, maxAttempts);
+    }
+
+    /** Starts before the web server's lifecycle phase, so in blocking mode no request is served until done. */
+    @Override
+    public void start() {
+        started = true;
+        if (!async) {
+            state = State.RUNNING;
+            run();
+            state = State.DONE;
+            events.publishEvent(new Completed());
+            return;
+        }
+        Thread worker = new Thread(this::runWithRetries, "mongo-bootstrap");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void stop() {
+        started = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return started;
+    }
+
+    @Override
+    public int getPhase() {
+        return 0; // the embedded web server starts in a much later phase
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder health = state == State.DONE ? Health.up() : state == State.FAILED ? Health.down() : Health.outOfService();
+        health.withDetail("state", state);
+        return lastError == null ? health.build() : health.withDetail("error", lastError).build();
+    }
+
+    private void runWithRetries() {
+        state = State.RUNNING;
+        long start = System.nanoTime();
+        long backoffMs = 1000;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                run();
+                state = State.DONE;
+                lastError = null;
+                log.info("Mongo bootstrap finished in {} ms", (System.nanoTime() - start) / 1_000_000);
+                events.publishEvent(new Completed());
+                return;
+            } catch (RuntimeException e) {
+                lastError = e.getMessage();
+                if (attempt >= maxAttempts) {
+                    state = State.FAILED;
+                    log.error("Mongo bootstrap failed after {} attempts; marking the application broken", attempt, e);
+                    AvailabilityChangeEvent.publish(events, this, LivenessState.BROKEN);
+                    return;
+                }
+                log.warn("Mongo bootstrap attempt {} failed, retrying in {}: {}", attempt, Duration.ofMillis(backoffMs), e.getMessage());
+            }
+            try {
+                Thread.sleep(backoffMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            backoffMs = Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+        }
+    }
+
+    private void run() {
+        migrations.forEach(Migration::run);
+        createIndexes();
+        seeder.seedDefaultUser();
+        indexCoverageCheck.check();
+    }
+
+    /** Same definitions auto-index-creation would build; creating an index that already exists is a no-op. */
+    private void createIndexes() {
+        IndexResolver resolver = IndexResolver.create(mappingContext);
+        for (MongoPersistentEntity<?> entity : mappingContext.getPersistentEntities()) {
+            if (!entity.isAnnotationPresent(Document.class)) continue;
+            IndexOperations indexes = mongoTemplate.indexOps(entity.getType());
+            for (IndexDefinition index : resolver.resolveIndexFor(entity.getTypeInformation())) {
+                indexes.ensureIndex(index);
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.mall.config;
+
+import com.example.mall.ratelimit.MongoPoolWaitMonitor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Driver connection pool sizing. Defaults match the driver's own; the virtual-threads profile raises the
+ * pool and shortens the wait because request concurrency is no longer capped by Tomcat's worker pool,
+ * so the pool becomes the real limit and callers should fail fast instead of queueing for minutes.
+ */
+@Configuration
+public class MongoPoolConfig {
+    @Bean
+    MongoClientSettingsBuilderCustomizer mongoPoolCustomizer(
+            @Value("${mall.mongo.pool.max-size:100}") int maxSize,
+            @Value("${mall.mongo.pool.min-size:0}") int minSize,
+            @Value("${mall.mongo.pool.max-connecting:2}") int maxConnecting,
+            @Value("${mall.mongo.pool.max-wait-ms:120000}") long maxWaitMs,
+            MongoPoolWaitMonitor waitMonitor) {
+        return settings -> settings.applyToConnectionPoolSettings(pool -> pool
+                .maxSize(maxSize)
+                .minSize(minSize)
+                .maxConnecting(maxConnecting)
+                .maxWaitTime(maxWaitMs, TimeUnit.MILLISECONDS)
+                .addConnectionPoolListener(waitMonitor));
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.mall.config;
+
+import com.example.mall.auth.TokenService;
+import com.example.mall.ratelimit.AdmissionControlFilter;
+import com.example.mall.ratelimit.AdmissionControlFilter.Limit;
+import com.example.mall.ratelimit.EndpointClass;
+import com.example.mall.ratelimit.MongoPoolWaitMonitor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+import java.util.Map;
+
+@Configuration
+public class RateLimitConfig {
+    // right behind CORS, so rejections still carry CORS headers but cost no token check beyond the client key
+    @Bean
+    @Profile("!reactive")
+    @ConditionalOnProperty(name = "mall.ratelimit.enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter(
+            TokenService tokenService, MongoPoolWaitMonitor poolWait, MeterRegistry meters,
+            @Value("${mall.ratelimit.auth.rate:5}") double authRate, @Value("${mall.ratelimit.auth.burst:10}") int authBurst,
+            @Value("${mall.ratelimit.list.rate:10}") double listRate, @Value("${mall.ratelimit.list.burst:20}") int listBurst,
+            @Value("${mall.ratelimit.read.rate:100}") double readRate, @Value("${mall.ratelimit.read.burst:200}") int readBurst,
+            @Value("${mall.ratelimit.write.rate:20}") double writeRate, @Value("${mall.ratelimit.write.burst:40}") int writeBurst,
+            @Value("${mall.ratelimit.list.max-concurrent:16}") int listMaxConcurrent,
+            @Value("${mall.ratelimit.list.queue-timeout:100ms}") Duration listQueueTimeout,
+            @Value("${mall.ratelimit.shed.pool-wait-threshold:50ms}") Duration shedThreshold,
+            @Value("${mall.ratelimit.max-clients:100000}") long maxClients) {
+        Map<EndpointClass, Limit> limits = Map.of(
+                EndpointClass.AUTH, new Limit(authRate, authBurst),
+                EndpointClass.LIST, new Limit(listRate, listBurst),
+                EndpointClass.READ, new Limit(readRate, readBurst),
+                EndpointClass.WRITE, new Limit(writeRate, writeBurst));
+        FilterRegistrationBean<AdmissionControlFilter> registration = new FilterRegistrationBean<>(new AdmissionControlFilter(
+                tokenService, poolWait, meters, limits, listMaxConcurrent, listQueueTimeout, shedThreshold, maxClients));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+}
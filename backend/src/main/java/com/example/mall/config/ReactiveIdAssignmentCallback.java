@@ -0,0 +1,26 @@
+package com.example.mall.config;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.Ordered;
+import org.springframework.data.mongodb.core.mapping.event.ReactiveBeforeConvertCallback;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+@Component
+public class ReactiveIdAssignmentCallback implements ReactiveBeforeConvertCallback<Object>, Ordered {
+    private final IdAssignmentCallback delegate;
+
+    public ReactiveIdAssignmentCallback(IdAssignmentCallback delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Publisher<Object> onBeforeConvert(Object entity, String collection) {
+        return Mono.just(delegate.onBeforeConvert(entity, collection));
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+}
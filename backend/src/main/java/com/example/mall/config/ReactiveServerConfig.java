@@ -0,0 +1,19 @@
+package com.example.mall.config;
+
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Tomcat stays on the classpath for the default servlet stack, and Boot would otherwise prefer it for
+ * reactive apps too; the reactive profile is meant to run on Netty's small fixed set of event loops.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveServerConfig {
+    @Bean
+    NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
@@ -3,20 +3,37 @@ package com.example.mall.product;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.IndexDirection;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.Instant;
-import java.util.UUID;
 
 @Document(collection = "products")
+@CompoundIndexes({
+        @CompoundIndex(name = "shopId_id", def = "{'shopId': 1, '_id': 1}"),
+        @CompoundIndex(name = "shopId_category_priceCents_id", def = "{'shopId': 1, 'category': 1, 'priceCents': 1, '_id': 1}"),
+        @CompoundIndex(name = "shopId_priceCents_id", def = "{'shopId': 1, 'priceCents': 1, '_id': 1}"),
+        @CompoundIndex(name = "category_priceCents_id", def = "{'category': 1, 'priceCents': 1, '_id': 1}"),
+        @CompoundIndex(name = "priceCents_id", def = "{'priceCents': 1, '_id': 1}"),
+        // newest-first lookup behind the ETags of the filtered lists (see ConditionalGet)
+        @CompoundIndex(name = "shopId_updatedAt", def = "{'shopId': 1, 'updatedAt': -1}"),
+        @CompoundIndex(name = "category_updatedAt", def = "{'category': 1, 'updatedAt': -1}"),
+        @CompoundIndex(name = "shopId_category_updatedAt", def = "{'shopId': 1, 'category': 1, 'updatedAt': -1}")
+})
 public class Product {
     @Id
-    private String id; // UUID string
+    private String id; // assigned on first insert by IdAssignmentCallback; ObjectId hex unless configured otherwise
 
     private String productName;
     private String description;
     private BigDecimal price;
+    private Long priceCents; // numeric copy of price for range queries and sorting; price itself is stored as a string
     private Integer quantity;
     private String category;
     private String shopId; // reference to Shop.id
@@ -25,17 +42,20 @@ public class Product {
     private Instant createdAt;
 
     @LastModifiedDate
+    @Indexed(direction = IndexDirection.DESCENDING) // newest-first lookup behind list ETags
     private Instant updatedAt;
 
-    public Product(){ this.id = UUID.randomUUID().toString(); }
+    @Version
+    private Long version; // optimistic lock for full-document saves; stock changes bump it atomically
 
     public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
     public String getProductName() { return productName; }
     public void setProductName(String productName) { this.productName = productName; }
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
     public BigDecimal getPrice() { return price; }
-    public void setPrice(BigDecimal price) { this.price = price; }
+    public void setPrice(BigDecimal price) { this.price = price; this.priceCents = toCents(price); }
     public Integer getQuantity() { return quantity; }
     public void setQuantity(Integer quantity) { this.quantity = quantity; }
     public String getCategory() { return category; }
@@ -44,4 +64,15 @@ public class Product {
     public void setShopId(String shopId) { this.shopId = shopId; }
     public Instant getCreatedAt() { return createdAt; }
     public Instant getUpdatedAt() { return updatedAt; }
+    public Long getVersion() { return version; }
+
+    void initVersion() { if (version == null) version = 0L; }
+
+    /** Largest accepted price (and price bound); request DTOs enforce it so {@link #toCents} cannot overflow. */
+    public static final String MAX_PRICE = "1000000000";
+
+    /** Price in minor units, rounded half-up to two decimals; null for no price. */
+    public static Long toCents(BigDecimal price) {
+        return price == null ? null : price.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
 }
@@ -0,0 +1,236 @@
+package com.example.mall.product;
+
+import com.example.mall.audit.AuditEvent.Action;
+import com.example.mall.audit.AuditLog;
+import com.example.mall.config.CacheConfig;
+import com.example.mall.product.dto.BulkItemResult;
+import com.example.mall.product.dto.ProductBulkUpdateRequest;
+import com.example.mall.product.dto.ProductCreateRequest;
+import com.example.mall.search.ProductSearchIndexer;
+import com.example.mall.shop.Shop;
+import com.example.mall.shop.ShopRepository;
+import com.example.mall.shop.ShopStatsService;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Catalog uploads. Items are read one at a time from a JSON array or NDJSON body and written in chunks
+ * of {@code mall.products.bulk.chunk-size}: each chunk costs one {@code $in} lookup for shop ids not seen
+ * yet and one unordered bulk write, instead of an existsById plus a save per item.
+ */
+@Service
+public class ProductBulkService {
+    private static final Comparator<BulkItemResult> BY_INDEX = Comparator.comparingInt(BulkItemResult::getIndex);
+
+    private final MongoTemplate mongoTemplate;
+    private final ShopRepository shopRepository;
+    private final ProductRepository productRepository;
+    private final Validator validator;
+    private final Cache productCache;
+    private final ProductSearchIndexer searchIndexer;
+    private final ShopStatsService shopStatsService;
+    private final AuditLog auditLog;
+    private final ObjectReader createReader;
+    private final ObjectReader updateReader;
+    private final int chunkSize;
+
+    public ProductBulkService(MongoTemplate mongoTemplate, ShopRepository shopRepository, ProductRepository productRepository,
+                              Validator validator, CacheManager cacheManager, ObjectMapper objectMapper, ProductSearchIndexer searchIndexer,
+                              ShopStatsService shopStatsService, AuditLog auditLog,
+                              @Value("${mall.products.bulk.chunk-size:1000}") int chunkSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.shopRepository = shopRepository;
+        this.productRepository = productRepository;
+        this.validator = validator;
+        this.productCache = cacheManager.getCache(CacheConfig.PRODUCTS);
+        this.searchIndexer = searchIndexer;
+        this.shopStatsService = shopStatsService;
+        this.auditLog = auditLog;
+        this.createReader = objectMapper.readerFor(ProductCreateRequest.class);
+        this.updateReader = objectMapper.readerFor(ProductBulkUpdateRequest.class);
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    public List<BulkItemResult> create(InputStream body) throws IOException {
+        List<BulkItemResult> results = new ArrayList<>();
+        ShopIds shops = new ShopIds();
+        try (MappingIterator<ProductCreateRequest> items = createReader.readValues(body)) {
+            readInChunks(items, results, chunk -> insertChunk(chunk, shops, results));
+        }
+        results.sort(BY_INDEX);
+        return results;
+    }
+
+    public List<BulkItemResult> update(InputStream body) throws IOException {
+        List<BulkItemResult> results = new ArrayList<>();
+        ShopIds shops = new ShopIds();
+        try (MappingIterator<ProductBulkUpdateRequest> items = updateReader.readValues(body)) {
+            readInChunks(items, results, chunk -> updateChunk(chunk, shops, results));
+        }
+        results.sort(BY_INDEX);
+        return results;
+    }
+
+    private <T> void readInChunks(MappingIterator<T> items, List<BulkItemResult> results, ChunkWriter<T> writer) {
+        List<Item<T>> chunk = new ArrayList<>(chunkSize);
+        int index = 0;
+        while (true) {
+            T request;
+            try {
+                if (!items.hasNextValue()) break;
+                request = items.nextValue();
+            } catch (IOException | RuntimeException e) {
+                // a malformed item ends the upload; everything before it is still written and reported
+                writer.write(chunk);
+                results.add(BulkItemResult.error(index, null, "Malformed item: " + e.getMessage()));
+                return;
+            }
+            chunk.add(new Item<>(index++, request));
+            if (chunk.size() == chunkSize) {
+                writer.write(chunk); // write failures propagate: retrying a partly inserted chunk would duplicate rows
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        writer.write(chunk);
+    }
+
+    private void insertChunk(List<Item<ProductCreateRequest>> chunk, ShopIds shops, List<BulkItemResult> results) {
+        if (chunk.isEmpty()) return;
+        shops.resolve(chunk.stream().map(i -> i.request).filter(r -> r != null && r.getShopId() != null)
+                .map(ProductCreateRequest::getShopId).collect(Collectors.toSet()));
+        List<Item<ProductCreateRequest>> accepted = new ArrayList<>();
+        List<Product> products = new ArrayList<>();
+        for (Item<ProductCreateRequest> item : chunk) {
+            String error = validate(item.request);
+            if (error == null && !shops.exists(item.request.getShopId())) error = "shopId not found";
+            if (error != null) { results.add(BulkItemResult.error(item.index, null, error)); continue; }
+            accepted.add(item);
+            products.add(ProductMapper.toProduct(item.request));
+        }
+        if (products.isEmpty()) return;
+        BulkOperations ops = mongoTemplate.bulkOps(BulkMode.UNORDERED, Product.class);
+        ops.insert(products);
+        Set<Integer> failed = execute(ops, accepted, results);
+        Set<String> touchedShops = new HashSet<>();
+        List<String> created = new ArrayList<>();
+        for (int i = 0; i < products.size(); i++) {
+            if (failed.contains(i)) continue;
+            results.add(BulkItemResult.created(accepted.get(i).index, products.get(i).getId()));
+            touchedShops.add(products.get(i).getShopId());
+            created.add(products.get(i).getId());
+        }
+        shopStatsService.markDirty(touchedShops);
+        auditLog.record(Action.CREATE, "products", created);
+    }
+
+    private void updateChunk(List<Item<ProductBulkUpdateRequest>> chunk, ShopIds shops, List<BulkItemResult> results) {
+        if (chunk.isEmpty()) return;
+        shops.resolve(chunk.stream().map(i -> i.request).filter(r -> r != null && r.getShopId() != null)
+                .map(ProductBulkUpdateRequest::getShopId).collect(Collectors.toSet()));
+        Set<String> ids = chunk.stream().map(i -> i.request).filter(r -> r != null && r.getId() != null)
+                .map(ProductBulkUpdateRequest::getId).collect(Collectors.toSet());
+        Map<String, String> existing = new HashMap<>(); // product id -> shop id before this update
+        if (!ids.isEmpty()) productRepository.findIdsByIdIn(ids).forEach(p -> existing.put(p.getId(), p.getShopId()));
+        List<Item<ProductBulkUpdateRequest>> accepted = new ArrayList<>();
+        BulkOperations ops = mongoTemplate.bulkOps(BulkMode.UNORDERED, Product.class);
+        for (Item<ProductBulkUpdateRequest> item : chunk) {
+            String error = validate(item.request);
+            String id = item.request == null ? null : item.request.getId();
+            if (error == null && !existing.containsKey(id)) error = "Product not found";
+            if (error == null && item.request.getShopId() != null && !shops.exists(item.request.getShopId())) error = "shopId not found";
+            if (error != null) { results.add(BulkItemResult.error(item.index, id, error)); continue; }
+            accepted.add(item);
+            ops.updateOne(Query.query(Criteria.where("id").is(id)), ProductMapper.toUpdate(item.request));
+        }
+        if (accepted.isEmpty()) return;
+        Set<Integer> failed = execute(ops, accepted, results);
+        Set<String> updated = new HashSet<>();
+        Set<String> touchedShops = new HashSet<>();
+        for (int i = 0; i < accepted.size(); i++) {
+            ProductBulkUpdateRequest request = accepted.get(i).request;
+            productCache.evict(request.getId());
+            if (!failed.contains(i)) {
+                updated.add(request.getId());
+                touchedShops.add(existing.get(request.getId()));
+                touchedShops.add(request.getShopId());
+                results.add(BulkItemResult.updated(accepted.get(i).index, request.getId()));
+            }
+        }
+        searchIndexer.reindex(updated); // updateOne bypasses the mapping events the indexer listens to
+        touchedShops.remove(null);
+        shopStatsService.markDirty(touchedShops);
+        auditLog.record(Action.UPDATE, "products", updated);
+    }
+
+    /** Runs the bulk write and reports per-operation failures; returns the failed positions within {@code ops}. */
+    private <T> Set<Integer> execute(BulkOperations ops, List<Item<T>> accepted, List<BulkItemResult> results) {
+        Set<Integer> failed = new HashSet<>();
+        try {
+            ops.execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                failed.add(error.getIndex());
+                results.add(BulkItemResult.error(accepted.get(error.getIndex()).index, null, error.getMessage()));
+            }
+        }
+        return failed;
+    }
+
+    private String validate(Object request) {
+        if (request == null) return "Empty item";
+        Set<ConstraintViolation<Object>> violations = validator.validate(request);
+        if (violations.isEmpty()) return null;
+        return violations.stream().map(v -> v.getPropertyPath() + " " + v.getMessage()).sorted().collect(Collectors.joining(", "));
+    }
+
+    /** Remembers shop ids already looked up so repeated ids across chunks are not queried again. */
+    private final class ShopIds {
+        private final Set<String> known = new HashSet<>();
+        private final Set<String> missing = new HashSet<>();
+
+        void resolve(Set<String> ids) {
+            Set<String> unseen = new HashSet<>(ids);
+            unseen.removeAll(known);
+            unseen.removeAll(missing);
+            if (unseen.isEmpty()) return;
+            Set<String> found = shopRepository.findIdsByIdIn(unseen).stream().map(Shop::getId).collect(Collectors.toSet());
+            known.addAll(found);
+            unseen.removeAll(found);
+            missing.addAll(unseen);
+        }
+
+        boolean exists(String id) { return known.contains(id); }
+    }
+
+    private record Item<T>(int index, T request) {}
+
+    @FunctionalInterface
+    private interface ChunkWriter<T> {
+        void write(List<Item<T>> chunk);
+    }
+}
@@ -1,30 +1,162 @@
 package com.example.mall.product;
 
+import com.example.mall.audit.AuditEvent.Action;
+import com.example.mall.audit.AuditLog;
+import com.example.mall.common.ConditionalGet;
+import com.example.mall.common.CursorPage;
+import com.example.mall.common.FieldSelection;
+import com.example.mall.common.KeysetCursor;
+import com.example.mall.common.NdjsonExporter;
+import com.example.mall.product.dto.BulkItemResult;
 import com.example.mall.product.dto.ProductCreateRequest;
 import com.example.mall.product.dto.ProductUpdateRequest;
+import com.example.mall.product.dto.ReservationRequest;
+import com.example.mall.product.dto.ReservationResult;
+import com.example.mall.product.dto.StockChangeRequest;
 import com.example.mall.shop.ShopRepository;
+import com.example.mall.shop.ShopStatsService;
 import jakarta.validation.Valid;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/products")
 public class ProductController {
+    private static final int MAX_PAGE_SIZE = 500;
+
+    /** What {@code fields=} may name on the list; shared with {@link ReactiveProductController}. */
+    static final FieldSelection<Product> LIST_FIELDS = new FieldSelection<Product>()
+            .allow("id", Product::getId).allow("productName", Product::getProductName).allow("description", Product::getDescription)
+            .allow("price", Product::getPrice).allow("quantity", Product::getQuantity).allow("category", Product::getCategory)
+            .allow("shopId", Product::getShopId).allow("createdAt", Product::getCreatedAt).allow("updatedAt", Product::getUpdatedAt)
+            .allow("version", Product::getVersion);
+
     private final ProductRepository productRepository;
+    private final StockReservationRepository reservationRepository;
     private final ShopRepository shopRepository;
+    private final NdjsonExporter ndjsonExporter;
+    private final ProductBulkService productBulkService;
+    private final ShopStatsService shopStatsService;
+    private final ConditionalGet conditionalGet;
+    private final AuditLog auditLog;
 
-    public ProductController(ProductRepository productRepository, ShopRepository shopRepository) {
+    public ProductController(ProductRepository productRepository, StockReservationRepository reservationRepository,
+                             ShopRepository shopRepository, NdjsonExporter ndjsonExporter, ProductBulkService productBulkService,
+                             ShopStatsService shopStatsService, ConditionalGet conditionalGet, AuditLog auditLog) {
         this.productRepository = productRepository;
+        this.reservationRepository = reservationRepository;
         this.shopRepository = shopRepository;
+        this.ndjsonExporter = ndjsonExporter;
+        this.productBulkService = productBulkService;
+        this.shopStatsService = shopStatsService;
+        this.conditionalGet = conditionalGet;
+        this.auditLog = auditLog;
     }
 
     @GetMapping
-    public List<Product> list(@RequestParam(value = "shopId", required = false) String shopId){
-        if(shopId != null){ return productRepository.findByShopId(shopId); }
-        return productRepository.findAll();
+    public ResponseEntity<?> list(@RequestParam(value = "shopId", required = false) String shopId,
+                                  @RequestParam(value = "category", required = false) String category,
+                                  @RequestParam(value = "view", defaultValue = "full") String view,
+                                  @RequestParam(value = "fields", required = false) String fields,
+                                  WebRequest request){
+        // view=summary and fields= project in Mongo, so unused fields are neither read, materialized nor serialized;
+        // fields= takes precedence over view=
+        List<String> selected;
+        try { selected = fields == null ? null : LIST_FIELDS.parse(fields); }
+        catch (IllegalArgumentException e) { return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage()); }
+        Class<?> type = "summary".equals(view) ? ProductSummary.class : Product.class;
+        Criteria filter = null;
+        if(shopId != null){ filter = Criteria.where("shopId").is(shopId); }
+        if(category != null){ filter = (filter == null ? Criteria.where("category") : filter.and("category")).is(category); }
+        return conditionalGet.<List<?>>list(request, Product.class, filter, () -> {
+            if(selected != null){ return LIST_FIELDS.render(productRepository.findFields(shopId, category, selected), selected); }
+            if(shopId != null && category != null){ return productRepository.findByShopIdAndCategoryOrderByPriceCentsAsc(shopId, category, type); }
+            if(shopId != null){ return productRepository.findByShopId(shopId, type); }
+            if(category != null){ return productRepository.findByCategoryOrderByPriceCentsAsc(category, type); }
+            return productRepository.findAllBy(type);
+        });
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(value = "shopId", required = false) String shopId){
+        if(shopId != null){ return ndjsonExporter.export(() -> productRepository.streamByShopId(shopId)); }
+        return ndjsonExporter.export(productRepository::streamAllBy);
+    }
+
+    @GetMapping("/page")
+    public ResponseEntity<?> page(@RequestParam(value = "shopId", required = false) String shopId,
+                                  @RequestParam(value = "cursor", required = false) String cursor,
+                                  @RequestParam(value = "limit", defaultValue = "50") int limit){
+        String afterId;
+        try { afterId = KeysetCursor.decode(cursor); }
+        catch (IllegalArgumentException e) { return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid cursor"); }
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // fetch one extra row to learn whether another page exists without a count query
+        List<Product> items = productRepository.findPage(shopId, afterId, size + 1);
+        String next = null;
+        if(items.size() > size){
+            items = items.subList(0, size);
+            next = KeysetCursor.encode(items.get(size - 1).getId());
+        }
+        return ResponseEntity.ok(new CursorPage<>(items, next));
+    }
+
+    /** Price-ordered browsing within an optional price range; served by the {@code priceCents} indexes. */
+    @GetMapping("/by-price")
+    public ResponseEntity<?> byPrice(@RequestParam(value = "shopId", required = false) String shopId,
+                                     @RequestParam(value = "category", required = false) String category,
+                                     @RequestParam(value = "min", required = false) BigDecimal min,
+                                     @RequestParam(value = "max", required = false) BigDecimal max,
+                                     @RequestParam(value = "order", defaultValue = "asc") String order,
+                                     @RequestParam(value = "cursor", required = false) String cursor,
+                                     @RequestParam(value = "limit", defaultValue = "50") int limit){
+        if(!"asc".equals(order) && !"desc".equals(order)){
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("order must be asc or desc");
+        }
+        if(outOfRange(min) || outOfRange(max)){
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("min and max must be within -" + Product.MAX_PRICE + " and " + Product.MAX_PRICE);
+        }
+        if(min != null && max != null && min.compareTo(max) > 0){
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("min must not exceed max");
+        }
+        KeysetCursor.Position after;
+        try { after = KeysetCursor.decodePosition(cursor); }
+        catch (IllegalArgumentException e) { return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid cursor"); }
+        // bounds in whole cents, inclusive: a min of 9.995 starts at 10.00, a max of 9.995 ends at 9.99
+        Long minCents = min == null ? null : min.movePointRight(2).setScale(0, RoundingMode.CEILING).longValueExact();
+        Long maxCents = max == null ? null : max.movePointRight(2).setScale(0, RoundingMode.FLOOR).longValueExact();
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<Product> items = productRepository.findPricePage(shopId, category, minCents, maxCents, "desc".equals(order), after, size + 1);
+        String next = null;
+        if(items.size() > size){
+            items = items.subList(0, size);
+            Product last = items.get(size - 1);
+            next = KeysetCursor.encode(new KeysetCursor.Position(Product.toCents(last.getPrice()), last.getId()));
+        }
+        return ResponseEntity.ok(new CursorPage<>(items, next));
+    }
+
+    // beyond this the bound in cents would not fit a long (and no price can be that high anyway)
+    static boolean outOfRange(BigDecimal bound) {
+        return bound != null && bound.abs().compareTo(new BigDecimal(Product.MAX_PRICE)) > 0;
     }
 
     @PostMapping
@@ -32,40 +164,120 @@ public class ProductController {
         if(!shopRepository.existsById(req.getShopId())){
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("shopId not found");
         }
-        Product p = new Product();
-        p.setProductName(req.getProductName());
-        p.setDescription(req.getDescription());
-        p.setPrice(req.getPrice());
-        p.setQuantity(req.getQuantity());
-        p.setCategory(req.getCategory());
-        p.setShopId(req.getShopId());
-        return ResponseEntity.status(HttpStatus.CREATED).body(productRepository.save(p));
+        Product saved = productRepository.save(ProductMapper.toProduct(req));
+        shopStatsService.markDirty(saved.getShopId());
+        auditLog.record(Action.CREATE, "products", saved.getId());
+        return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+    }
+
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, NdjsonExporter.APPLICATION_NDJSON_VALUE})
+    public List<BulkItemResult> bulkCreate(InputStream body) throws IOException {
+        return productBulkService.create(body);
+    }
+
+    @PutMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, NdjsonExporter.APPLICATION_NDJSON_VALUE})
+    public List<BulkItemResult> bulkUpdate(InputStream body) throws IOException {
+        return productBulkService.update(body);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Product> get(@PathVariable("id") String id){
-        return productRepository.findById(id).map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<Product> get(@PathVariable("id") String id, WebRequest request){
+        return productRepository.findCachedById(id).map(p -> conditionalGet.single(request, p.getVersion(), p.getUpdatedAt(), p))
+                .orElse(ResponseEntity.notFound().build());
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<?> update(@PathVariable("id") String id, @RequestBody ProductUpdateRequest req){
+    public ResponseEntity<?> update(@PathVariable("id") String id, @Valid @RequestBody ProductUpdateRequest req){
         return productRepository.findById(id).map(existing -> {
             if(req.getShopId()!=null && !shopRepository.existsById(req.getShopId())){
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("shopId not found");
             }
-            if(req.getProductName()!=null) existing.setProductName(req.getProductName());
-            if(req.getDescription()!=null) existing.setDescription(req.getDescription());
-            if(req.getPrice()!=null) existing.setPrice(req.getPrice());
-            if(req.getQuantity()!=null) existing.setQuantity(req.getQuantity());
-            if(req.getCategory()!=null) existing.setCategory(req.getCategory());
-            if(req.getShopId()!=null) existing.setShopId(req.getShopId());
-            return ResponseEntity.ok(productRepository.save(existing));
+            String previousShopId = existing.getShopId();
+            ProductMapper.applyUpdate(existing, req);
+            try {
+                Product saved = productRepository.save(existing);
+                shopStatsService.markDirty(previousShopId, saved.getShopId());
+                auditLog.record(Action.UPDATE, "products", id);
+                return ResponseEntity.ok(saved);
+            } catch (OptimisticLockingFailureException e) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body("Product was modified concurrently, reload and retry");
+            }
         }).orElse(ResponseEntity.notFound().build());
     }
 
+    @PostMapping("/{id}/reserve")
+    public ResponseEntity<?> reserve(@PathVariable("id") String id, @Valid @RequestBody StockChangeRequest req){
+        return reserveLines(Map.of(id, req.getQuantity()));
+    }
+
+    /**
+     * All-or-nothing reservation of several lines: each line is one conditional $inc, and if any line
+     * cannot be satisfied the lines already taken are released again before answering.
+     */
+    @PostMapping("/reservations")
+    public ResponseEntity<?> reserveAll(@Valid @RequestBody ReservationRequest req){
+        Map<String, Integer> lines = new TreeMap<>(); // merge repeated products, fixed order across requests
+        for(ReservationRequest.Line line : req.getItems()){ lines.merge(line.getProductId(), line.getQuantity(), Integer::sum); }
+        return reserveLines(lines);
+    }
+
+    /** Puts back what the reservation took; stock can only be released through a reservation, and only once. */
+    @PostMapping("/reservations/{reservationId}/release")
+    public ResponseEntity<?> release(@PathVariable("reservationId") String reservationId){
+        StockReservation reservation = reservationRepository.markReleased(reservationId);
+        if(reservation == null){
+            if(!reservationRepository.existsById(reservationId)){ return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Reservation not found"); }
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Reservation already released");
+        }
+        List<Product> released = new ArrayList<>();
+        for(StockReservation.Line line : reservation.getItems()){
+            Product updated = productRepository.releaseStock(line.productId(), line.quantity());
+            if(updated != null){ released.add(updated); } // a product deleted since has nothing to return stock to
+        }
+        shopStatsService.markDirty(released.stream().map(Product::getShopId).toList());
+        auditLog.record(Action.UPDATE, "products", released.stream().map(Product::getId).toList());
+        return ResponseEntity.ok(new ReservationResult(reservation, released));
+    }
+
+    private ResponseEntity<?> reserveLines(Map<String, Integer> lines){
+        Map<String, Integer> taken = new LinkedHashMap<>();
+        List<Product> reserved = new ArrayList<>();
+        for(Map.Entry<String, Integer> line : lines.entrySet()){
+            Product updated = productRepository.reserveStock(line.getKey(), line.getValue());
+            if(updated == null){
+                taken.forEach(productRepository::releaseStock);
+                return stockFailure(line.getKey());
+            }
+            taken.put(line.getKey(), line.getValue());
+            reserved.add(updated);
+        }
+        StockReservation reservation;
+        try {
+            reservation = reservationRepository.save(new StockReservation(
+                    taken.entrySet().stream().map(e -> new StockReservation.Line(e.getKey(), e.getValue())).toList()));
+        } catch (RuntimeException e) {
+            taken.forEach(productRepository::releaseStock); // without a record the stock could never be released
+            throw e;
+        }
+        shopStatsService.markDirty(reserved.stream().map(Product::getShopId).toList());
+        auditLog.record(Action.UPDATE, "products", taken.keySet());
+        return ResponseEntity.ok(new ReservationResult(reservation, reserved));
+    }
+
+    private ResponseEntity<?> stockFailure(String id){
+        // only the failure path pays for the extra lookup that tells "missing" from "sold out"
+        if(!productRepository.existsById(id)){ return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Product not found: " + id); }
+        return ResponseEntity.status(HttpStatus.CONFLICT).body("Insufficient stock for product " + id);
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> delete(@PathVariable("id") String id){
-        if(productRepository.existsById(id)) { productRepository.deleteById(id); return ResponseEntity.noContent().build(); }
-        return ResponseEntity.notFound().build();
+        // read the product rather than just test for it, so the shop whose stats change is known
+        return productRepository.findById(id).map(existing -> {
+            productRepository.deleteById(id);
+            shopStatsService.markDirty(existing.getShopId());
+            auditLog.record(Action.DELETE, "products", id);
+            return ResponseEntity.noContent().<Void>build();
+        }).orElse(ResponseEntity.notFound().build());
     }
 }
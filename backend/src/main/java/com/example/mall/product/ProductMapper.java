@@ -0,0 +1,45 @@
+package com.example.mall.product;
+
+import com.example.mall.product.dto.ProductCreateRequest;
+import com.example.mall.product.dto.ProductUpdateRequest;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+
+public final class ProductMapper {
+    private ProductMapper() {}
+
+    public static Product toProduct(ProductCreateRequest req) {
+        Product p = new Product();
+        p.setProductName(req.getProductName());
+        p.setDescription(req.getDescription());
+        p.setPrice(req.getPrice());
+        p.setQuantity(req.getQuantity());
+        p.setCategory(req.getCategory());
+        p.setShopId(req.getShopId());
+        return p;
+    }
+
+    public static void applyUpdate(Product existing, ProductUpdateRequest req) {
+        if(req.getProductName()!=null) existing.setProductName(req.getProductName());
+        if(req.getDescription()!=null) existing.setDescription(req.getDescription());
+        if(req.getPrice()!=null) existing.setPrice(req.getPrice());
+        if(req.getQuantity()!=null) existing.setQuantity(req.getQuantity());
+        if(req.getCategory()!=null) existing.setCategory(req.getCategory());
+        if(req.getShopId()!=null) existing.setShopId(req.getShopId());
+    }
+
+    /** Same partial-update semantics as {@link #applyUpdate}, expressed as a $set for in-place writes. */
+    public static Update toUpdate(ProductUpdateRequest req) {
+        Update u = new Update();
+        if(req.getProductName()!=null) u.set("productName", req.getProductName());
+        if(req.getDescription()!=null) u.set("description", req.getDescription());
+        if(req.getPrice()!=null) u.set("price", req.getPrice()).set("priceCents", Product.toCents(req.getPrice()));
+        if(req.getQuantity()!=null) u.set("quantity", req.getQuantity());
+        if(req.getCategory()!=null) u.set("category", req.getCategory());
+        if(req.getShopId()!=null) u.set("shopId", req.getShopId());
+        u.set("updatedAt", Instant.now());
+        u.inc("version", 1);
+        return u;
+    }
+}
@@ -1,8 +1,50 @@
 package com.example.mall.product;
 
+import com.example.mall.config.CacheConfig;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface ProductRepository extends MongoRepository<Product, String> {
-    List<Product> findByShopId(String shopId);
+public interface ProductRepository extends MongoRepository<Product, String>, ProductRepositoryCustom {
+    // dynamic projections: pass Product.class for full documents or ProductSummary.class to read only its fields
+    <T> List<T> findAllBy(Class<T> type);
+
+    <T> List<T> findByShopId(String shopId, Class<T> type);
+
+    <T> List<T> findByShopIdAndCategoryOrderByPriceCentsAsc(String shopId, String category, Class<T> type);
+
+    <T> List<T> findByCategoryOrderByPriceCentsAsc(String category, Class<T> type);
+
+    Stream<Product> streamAllBy();
+
+    Stream<Product> streamByShopId(String shopId);
+
+    /** Single {@code $in} round trip returning only the {@code _id} and {@code shopId} of the products that exist. */
+    @Query(value = "{ '_id': { '$in': ?0 } }", fields = "{ '_id': 1, 'shopId': 1 }")
+    List<Product> findIdsByIdIn(Collection<String> ids);
+
+    /** Cached lookup for read-only callers; read-modify-write paths keep using the uncached {@link #findById}. */
+    @Cacheable(cacheNames = CacheConfig.PRODUCTS, unless = "#result == null")
+    default Optional<Product> findCachedById(String id) { return findById(id); }
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS, key = "#p0.id")
+    <S extends Product> S save(S entity);
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS, key = "#p0")
+    void deleteById(String id);
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS, key = "#p0")
+    Product reserveStock(String id, int quantity);
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS, key = "#p0")
+    Product releaseStock(String id, int quantity);
 }
@@ -0,0 +1,42 @@
+package com.example.mall.product;
+
+import com.example.mall.common.KeysetCursor;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ProductRepositoryCustom {
+    /**
+     * The list query behind {@code fields=}: products of a shop and/or category (either may be null), ordered by
+     * price when a category is given like the derived finders, with only {@code fields} read from Mongo.
+     */
+    List<Product> findFields(String shopId, String category, Collection<String> fields);
+
+    /**
+     * Keyset page ordered by {@code _id}: returns at most {@code limit} products whose id sorts after
+     * {@code afterId} (null for the first page). {@code shopId} may be null to page the whole catalog.
+     */
+    List<Product> findPage(String shopId, String afterId, int limit);
+
+    /**
+     * Keyset page ordered by price, then {@code _id}, within {@code [minCents, maxCents]} (either bound may be null),
+     * optionally narrowed to a shop and/or category. {@code after} is the last row of the previous page. Products
+     * without a {@code priceCents} are left out.
+     */
+    List<Product> findPricePage(String shopId, String category, Long minCents, Long maxCents, boolean descending,
+                                KeysetCursor.Position after, int limit);
+
+    /**
+     * Atomically takes {@code quantity} units if at least that many are in stock: a single conditional
+     * findAndModify with {@code $inc}, so concurrent checkouts never read-modify-write.
+     *
+     * @return the product after the decrement, or null when it does not exist or has too little stock
+     */
+    Product reserveStock(String id, int quantity);
+
+    /**
+     * Atomically puts {@code quantity} units back; returns the updated product, or null if it does not exist.
+     * Only for returning what a {@link StockReservation} took, never for arbitrary quantities.
+     */
+    Product releaseStock(String id, int quantity);
+}
@@ -0,0 +1,102 @@
+package com.example.mall.product;
+
+import com.example.mall.common.KeysetCursor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+class ProductRepositoryImpl implements ProductRepositoryCustom {
+    private final MongoTemplate mongoTemplate;
+
+    ProductRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<Product> findFields(String shopId, String category, Collection<String> fields) {
+        return mongoTemplate.find(fieldsQuery(shopId, category, fields), Product.class);
+    }
+
+    /** Shared with {@link ReactiveProductRepositoryImpl#findFields}. */
+    static Query fieldsQuery(String shopId, String category, Collection<String> fields) {
+        Query query = new Query();
+        if (shopId != null) {
+            query.addCriteria(Criteria.where("shopId").is(shopId));
+        }
+        if (category != null) {
+            query.addCriteria(Criteria.where("category").is(category));
+            query.with(Sort.by("priceCents"));
+        }
+        query.fields().include(fields.toArray(String[]::new));
+        return query;
+    }
+
+    @Override
+    public List<Product> findPage(String shopId, String afterId, int limit) {
+        Query query = new Query();
+        if (shopId != null) {
+            query.addCriteria(Criteria.where("shopId").is(shopId));
+        }
+        if (afterId != null) {
+            query.addCriteria(KeysetCursor.idAfter(afterId));
+        }
+        query.with(Sort.by("id")).limit(limit);
+        return mongoTemplate.find(query, Product.class);
+    }
+
+    @Override
+    public List<Product> findPricePage(String shopId, String category, Long minCents, Long maxCents, boolean descending,
+                                       KeysetCursor.Position after, int limit) {
+        return mongoTemplate.find(pricePageQuery(shopId, category, minCents, maxCents, descending, after, limit), Product.class);
+    }
+
+    /** Shared with {@link ReactiveProductRepositoryImpl#findPricePage}. */
+    static Query pricePageQuery(String shopId, String category, Long minCents, Long maxCents, boolean descending,
+                                KeysetCursor.Position after, int limit) {
+        Query query = new Query();
+        if (shopId != null) {
+            query.addCriteria(Criteria.where("shopId").is(shopId));
+        }
+        if (category != null) {
+            query.addCriteria(Criteria.where("category").is(category));
+        }
+        // an unbounded range still matches numbers only, so documents without priceCents drop out
+        Criteria price = Criteria.where("priceCents").gte(minCents != null ? minCents : Long.MIN_VALUE);
+        if (maxCents != null) {
+            price.lte(maxCents);
+        }
+        query.addCriteria(price);
+        if (after != null) {
+            Criteria beyond = descending ? Criteria.where("priceCents").lt(after.key()) : Criteria.where("priceCents").gt(after.key());
+            Criteria samePrice = new Criteria().andOperator(Criteria.where("priceCents").is(after.key()),
+                    descending ? KeysetCursor.idBefore(after.id()) : KeysetCursor.idAfter(after.id()));
+            query.addCriteria(new Criteria().orOperator(beyond, samePrice));
+        }
+        Sort.Direction direction = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+        return query.with(Sort.by(direction, "priceCents", "id")).limit(limit);
+    }
+
+    @Override
+    public Product reserveStock(String id, int quantity) {
+        Query query = new Query(Criteria.where("id").is(id).and("quantity").gte(quantity));
+        return mongoTemplate.findAndModify(query, stockChange(-quantity), FindAndModifyOptions.options().returnNew(true), Product.class);
+    }
+
+    @Override
+    public Product releaseStock(String id, int quantity) {
+        Query query = new Query(Criteria.where("id").is(id));
+        return mongoTemplate.findAndModify(query, stockChange(quantity), FindAndModifyOptions.options().returnNew(true), Product.class);
+    }
+
+    private static Update stockChange(int delta) {
+        // bump the version too so a concurrent full-document save of a stale copy fails instead of restoring old stock
+        return new Update().inc("quantity", delta).inc("version", 1).set("updatedAt", Instant.now());
+    }
+}
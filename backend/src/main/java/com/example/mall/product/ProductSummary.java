@@ -0,0 +1,7 @@
+package com.example.mall.product;
+
+import java.math.BigDecimal;
+
+/** Storefront grid view of a product: the fields the listing renders, without description or audit data. */
+public record ProductSummary(String id, String productName, BigDecimal price, Integer quantity, String shopId) {
+}
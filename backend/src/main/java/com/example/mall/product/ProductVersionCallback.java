@@ -0,0 +1,24 @@
+package com.example.mall.product;
+
+import org.springframework.core.Ordered;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertCallback;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bulk inserts do not initialise {@code @Version} the way {@code MongoTemplate.insert} does, and a product
+ * stored without a version is treated as new (and re-inserted) on its next save. Runs after auditing so
+ * new products still get their {@code createdAt}.
+ */
+@Component
+class ProductVersionCallback implements BeforeConvertCallback<Product>, Ordered {
+    @Override
+    public Product onBeforeConvert(Product product, String collection) {
+        product.initVersion();
+        return product;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.mall.product;
+
+import com.example.mall.audit.AuditEvent.Action;
+import com.example.mall.audit.AuditLog;
+import com.example.mall.auth.SessionToken;
+import com.example.mall.common.CursorPage;
+import com.example.mall.common.KeysetCursor;
+import com.example.mall.common.ReactiveConditionalGet;
+import com.example.mall.product.dto.ProductCreateRequest;
+import com.example.mall.product.dto.ProductUpdateRequest;
+import com.example.mall.shop.ReactiveShopRepository;
+import com.example.mall.shop.ShopStatsService;
+import jakarta.validation.Valid;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+/**
+ * Non-blocking twin of {@link ProductController}, active under the {@code reactive} profile, with the same
+ * validation, audit records, stats invalidation and validators on the routes it serves.
+ *
+ * <p>Bulk writes and stock reservations are not served here: each is a sequence of blocking writes with
+ * compensation on failure. They answer 501 rather than falling through to another route.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/products")
+public class ReactiveProductController {
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private final ReactiveProductRepository productRepository;
+    private final ReactiveShopRepository shopRepository;
+    private final ShopStatsService shopStatsService;
+    private final ReactiveConditionalGet conditionalGet;
+    private final AuditLog auditLog;
+
+    public ReactiveProductController(ReactiveProductRepository productRepository, ReactiveShopRepository shopRepository,
+                                     ShopStatsService shopStatsService, ReactiveConditionalGet conditionalGet, AuditLog auditLog) {
+        this.productRepository = productRepository;
+        this.shopRepository = shopRepository;
+        this.shopStatsService = shopStatsService;
+        this.conditionalGet = conditionalGet;
+        this.auditLog = auditLog;
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<?>> list(@RequestParam(value = "shopId", required = false) String shopId,
+                                        @RequestParam(value = "category", required = false) String category,
+                                        @RequestParam(value = "view", defaultValue = "full") String view,
+                                        @RequestParam(value = "fields", required = false) String fields,
+                                        ServerWebExchange exchange){
+        List<String> selected;
+        try { selected = fields == null ? null : ProductController.LIST_FIELDS.parse(fields); }
+        catch (IllegalArgumentException e) { return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage())); }
+        Class<?> type = "summary".equals(view) ? ProductSummary.class : Product.class;
+        Criteria filter = null;
+        if(shopId != null){ filter = Criteria.where("shopId").is(shopId); }
+        if(category != null){ filter = (filter == null ? Criteria.where("category") : filter.and("category")).is(category); }
+        return conditionalGet.<List<?>>list(exchange, Product.class, filter, () -> {
+            if(selected != null){
+                return productRepository.findFields(shopId, category, selected).collectList().map(l -> ProductController.LIST_FIELDS.render(l, selected));
+            }
+            Flux<?> items;
+            if(shopId != null && category != null){ items = productRepository.findByShopIdAndCategoryOrderByPriceCentsAsc(shopId, category, type); }
+            else if(shopId != null){ items = productRepository.findByShopId(shopId, type); }
+            else if(category != null){ items = productRepository.findByCategoryOrderByPriceCentsAsc(category, type); }
+            else { items = productRepository.findAllBy(type); }
+            return items.collectList().map(l -> (List<?>) l);
+        }).<ResponseEntity<?>>map(r -> r);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Product> export(@RequestParam(value = "shopId", required = false) String shopId){
+        return shopId != null ? productRepository.findByShopId(shopId, Product.class) : productRepository.findAll();
+    }
+
+    @GetMapping("/page")
+    public Mono<ResponseEntity<?>> page(@RequestParam(value = "shopId", required = false) String shopId,
+                                        @RequestParam(value = "cursor", required = false) String cursor,
+                                        @RequestParam(value = "limit", defaultValue = "50") int limit){
+        String afterId;
+        try { afterId = KeysetCursor.decode(cursor); }
+        catch (IllegalArgumentException e) { return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid cursor")); }
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return productRepository.findPage(shopId, afterId, size + 1).collectList().map(items -> {
+            String next = null;
+            if(items.size() > size){
+                items = items.subList(0, size);
+                next = KeysetCursor.encode(items.get(size - 1).getId());
+            }
+            return ResponseEntity.ok(new CursorPage<>(items, next));
+        });
+    }
+
+    @GetMapping("/by-price")
+    public Mono<ResponseEntity<?>> byPrice(@RequestParam(value = "shopId", required = false) String shopId,
+                                           @RequestParam(value = "category", required = false) String category,
+                                           @RequestParam(value = "min", required = false) BigDecimal min,
+                                           @RequestParam(value = "max", required = false) BigDecimal max,
+                                           @RequestParam(value = "order", defaultValue = "asc") String order,
+                                           @RequestParam(value = "cursor", required = false) String cursor,
+                                           @RequestParam(value = "limit", defaultValue = "50") int limit){
+        if(!"asc".equals(order) && !"desc".equals(order)){
+            return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body("order must be asc or desc"));
+        }
+        if(ProductController.outOfRange(min) || ProductController.outOfRange(max)){
+            return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body("min and max must be within -" + Product.MAX_PRICE + " and " + Product.MAX_PRICE));
+        }
+        if(min != null && max != null && min.compareTo(max) > 0){
+            return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body("min must not exceed max"));
+        }
+        KeysetCursor.Position after;
+        try { after = KeysetCursor.decodePosition(cursor); }
+        catch (IllegalArgumentException e) { return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid cursor")); }
+        Long minCents = min == null ? null : min.movePointRight(2).setScale(0, RoundingMode.CEILING).longValueExact();
+        Long maxCents = max == null ? null : max.movePointRight(2).setScale(0, RoundingMode.FLOOR).longValueExact();
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return productRepository.findPricePage(shopId, category, minCents, maxCents, "desc".equals(order), after, size + 1).collectList().map(items -> {
+            String next = null;
+            if(items.size() > size){
+                items = items.subList(0, size);
+                Product last = items.get(size - 1);
+                next = KeysetCursor.encode(new KeysetCursor.Position(Product.toCents(last.getPrice()), last.getId()));
+            }
+            return ResponseEntity.ok(new CursorPage<>(items, next));
+        });
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<?>> create(@Valid @RequestBody ProductCreateRequest req,
+                                          @RequestAttribute(SessionToken.REQUEST_ATTRIBUTE) SessionToken caller){
+        return shopRepository.existsById(req.getShopId()).flatMap(exists -> exists
+                ? productRepository.save(ProductMapper.toProduct(req)).map(saved -> {
+                    shopStatsService.markDirty(saved.getShopId());
+                    auditLog.record(Action.CREATE, "products", saved.getId(), caller);
+                    return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+                })
+                : Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body("shopId not found")));
+    }
+
+    @RequestMapping(value = {"/bulk", "/{id}/reserve", "/reservations", "/reservations/{reservationId}/release"},
+                    method = {RequestMethod.POST, RequestMethod.PUT})
+    public ResponseEntity<String> notServed(){
+        return ResponseEntity.status(HttpStatus.NOT_IMPLEMENTED).body("Not available under the reactive profile");
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Product>> get(@PathVariable("id") String id, ServerWebExchange exchange){
+        return productRepository.findById(id).map(p -> conditionalGet.single(exchange, p.getVersion(), p.getUpdatedAt(), p))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<?>> update(@PathVariable("id") String id, @Valid @RequestBody ProductUpdateRequest req,
+                                          @RequestAttribute(SessionToken.REQUEST_ATTRIBUTE) SessionToken caller){
+        Mono<Boolean> shopOk = req.getShopId() != null ? shopRepository.existsById(req.getShopId()) : Mono.just(true);
+        return productRepository.findById(id).flatMap(existing -> shopOk.flatMap(ok -> {
+            if(!ok){ return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body("shopId not found")); }
+            String previousShopId = existing.getShopId();
+            ProductMapper.applyUpdate(existing, req);
+            return productRepository.save(existing).<ResponseEntity<?>>map(saved -> {
+                        shopStatsService.markDirty(previousShopId, saved.getShopId());
+                        auditLog.record(Action.UPDATE, "products", id, caller);
+                        return ResponseEntity.ok(saved);
+                    })
+                    .onErrorResume(OptimisticLockingFailureException.class, e -> Mono.just(
+                            ResponseEntity.status(HttpStatus.CONFLICT).body("Product was modified concurrently, reload and retry")));
+        })).defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> delete(@PathVariable("id") String id,
+                                             @RequestAttribute(SessionToken.REQUEST_ATTRIBUTE) SessionToken caller){
+        return productRepository.findById(id).flatMap(existing -> productRepository.deleteById(id).then(Mono.fromSupplier(() -> {
+            shopStatsService.markDirty(existing.getShopId());
+            auditLog.record(Action.DELETE, "products", id, caller);
+            return ResponseEntity.noContent().<Void>build();
+        }))).defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.mall.product;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+
+public interface ReactiveProductRepository extends ReactiveMongoRepository<Product, String>, ReactiveProductRepositoryCustom {
+    <T> Flux<T> findAllBy(Class<T> type);
+
+    <T> Flux<T> findByShopId(String shopId, Class<T> type);
+
+    <T> Flux<T> findByShopIdAndCategoryOrderByPriceCentsAsc(String shopId, String category, Class<T> type);
+
+    <T> Flux<T> findByCategoryOrderByPriceCentsAsc(String category, Class<T> type);
+}
@@ -0,0 +1,18 @@
+package com.example.mall.product;
+
+import com.example.mall.common.KeysetCursor;
+import reactor.core.publisher.Flux;
+
+import java.util.Collection;
+
+public interface ReactiveProductRepositoryCustom {
+    /** Reactive counterpart of {@link ProductRepositoryCustom#findFields}. */
+    Flux<Product> findFields(String shopId, String category, Collection<String> fields);
+
+    /** Reactive counterpart of {@link ProductRepositoryCustom#findPage}. */
+    Flux<Product> findPage(String shopId, String afterId, int limit);
+
+    /** Reactive counterpart of {@link ProductRepositoryCustom#findPricePage}. */
+    Flux<Product> findPricePage(String shopId, String category, Long minCents, Long maxCents, boolean descending,
+                                KeysetCursor.Position after, int limit);
+}
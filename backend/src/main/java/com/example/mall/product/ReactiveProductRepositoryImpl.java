@@ -0,0 +1,42 @@
+package com.example.mall.product;
+
+import com.example.mall.common.KeysetCursor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+
+import java.util.Collection;
+
+class ReactiveProductRepositoryImpl implements ReactiveProductRepositoryCustom {
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    ReactiveProductRepositoryImpl(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Flux<Product> findFields(String shopId, String category, Collection<String> fields) {
+        return mongoTemplate.find(ProductRepositoryImpl.fieldsQuery(shopId, category, fields), Product.class);
+    }
+
+    @Override
+    public Flux<Product> findPage(String shopId, String afterId, int limit) {
+        Query query = new Query();
+        if (shopId != null) {
+            query.addCriteria(Criteria.where("shopId").is(shopId));
+        }
+        if (afterId != null) {
+            query.addCriteria(KeysetCursor.idAfter(afterId));
+        }
+        query.with(Sort.by("id")).limit(limit);
+        return mongoTemplate.find(query, Product.class);
+    }
+
+    @Override
+    public Flux<Product> findPricePage(String shopId, String category, Long minCents, Long maxCents, boolean descending,
+                                       KeysetCursor.Position after, int limit) {
+        return mongoTemplate.find(ProductRepositoryImpl.pricePageQuery(shopId, category, minCents, maxCents, descending, after, limit), Product.class);
+    }
+}
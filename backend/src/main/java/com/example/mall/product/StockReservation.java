@@ -0,0 +1,37 @@
+package com.example.mall.product;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.List;
+
+/** Stock taken by one reserve call; releasing it puts back exactly these quantities, once. */
+@Document(collection = "stock_reservations")
+public class StockReservation {
+    public enum Status { ACTIVE, RELEASED }
+
+    public record Line(String productId, int quantity) {}
+
+    @Id
+    private String id;
+
+    private List<Line> items;
+    private Status status;
+    private Instant createdAt;
+    private Instant releasedAt;
+
+    public StockReservation() {}
+
+    public StockReservation(List<Line> items) {
+        this.items = items;
+        this.status = Status.ACTIVE;
+        this.createdAt = Instant.now();
+    }
+
+    public String getId() { return id; }
+    public List<Line> getItems() { return items; }
+    public Status getStatus() { return status; }
+    public Instant getCreatedAt() { return createdAt; }
+    public Instant getReleasedAt() { return releasedAt; }
+}
@@ -0,0 +1,6 @@
+package com.example.mall.product;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface StockReservationRepository extends MongoRepository<StockReservation, String>, StockReservationRepositoryCustom {
+}
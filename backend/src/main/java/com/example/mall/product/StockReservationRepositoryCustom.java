@@ -0,0 +1,10 @@
+package com.example.mall.product;
+
+public interface StockReservationRepositoryCustom {
+    /**
+     * Atomically moves an ACTIVE reservation to RELEASED, so concurrent or repeated releases put stock back once.
+     *
+     * @return the released reservation, or null when it does not exist or was already released
+     */
+    StockReservation markReleased(String id);
+}
@@ -0,0 +1,25 @@
+package com.example.mall.product;
+
+import com.example.mall.product.StockReservation.Status;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+
+class StockReservationRepositoryImpl implements StockReservationRepositoryCustom {
+    private final MongoTemplate mongoTemplate;
+
+    StockReservationRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public StockReservation markReleased(String id) {
+        Query query = new Query(Criteria.where("id").is(id).and("status").is(Status.ACTIVE));
+        Update update = new Update().set("status", Status.RELEASED).set("releasedAt", Instant.now());
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), StockReservation.class);
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.mall.product.dto;
+
+public class BulkItemResult {
+    private final int index;
+    private final String id;
+    private final String status; // created, updated or error
+    private final String error;
+
+    private BulkItemResult(int index, String id, String status, String error) {
+        this.index = index;
+        this.id = id;
+        this.status = status;
+        this.error = error;
+    }
+
+    public static BulkItemResult created(int index, String id) { return new BulkItemResult(index, id, "created", null); }
+    public static BulkItemResult updated(int index, String id) { return new BulkItemResult(index, id, "updated", null); }
+    public static BulkItemResult error(int index, String id, String error) { return new BulkItemResult(index, id, "error", error); }
+
+    public int getIndex() { return index; }
+    public String getId() { return id; }
+    public String getStatus() { return status; }
+    public String getError() { return error; }
+}
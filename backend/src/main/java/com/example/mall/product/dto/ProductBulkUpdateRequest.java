@@ -0,0 +1,11 @@
+package com.example.mall.product.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+public class ProductBulkUpdateRequest extends ProductUpdateRequest {
+    @NotBlank
+    private String id;
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+}
@@ -1,5 +1,7 @@
 package com.example.mall.product.dto;
 
+import com.example.mall.product.Product;
+import jakarta.validation.constraints.DecimalMax;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import java.math.BigDecimal;
@@ -9,6 +11,7 @@ public class ProductCreateRequest {
     private String productName;
     private String description;
     @NotNull
+    @DecimalMax(Product.MAX_PRICE)
     private BigDecimal price;
     @NotNull
     private Integer quantity;
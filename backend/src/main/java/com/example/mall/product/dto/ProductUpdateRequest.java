@@ -1,10 +1,13 @@
 package com.example.mall.product.dto;
 
+import com.example.mall.product.Product;
+import jakarta.validation.constraints.DecimalMax;
 import java.math.BigDecimal;
 
 public class ProductUpdateRequest {
     private String productName;
     private String description;
+    @DecimalMax(Product.MAX_PRICE)
     private BigDecimal price;
     private Integer quantity;
     private String category;
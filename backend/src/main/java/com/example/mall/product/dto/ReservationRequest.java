@@ -0,0 +1,32 @@
+package com.example.mall.product.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+import java.util.List;
+
+public class ReservationRequest {
+    @NotEmpty
+    @Valid
+    private List<Line> items;
+
+    public List<Line> getItems() { return items; }
+    public void setItems(List<Line> items) { this.items = items; }
+
+    public static class Line {
+        @NotBlank
+        private String productId;
+
+        @NotNull
+        @Positive
+        private Integer quantity;
+
+        public String getProductId() { return productId; }
+        public void setProductId(String productId) { this.productId = productId; }
+        public Integer getQuantity() { return quantity; }
+        public void setQuantity(Integer quantity) { this.quantity = quantity; }
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.mall.product.dto;
+
+import com.example.mall.product.Product;
+import com.example.mall.product.StockReservation;
+
+import java.util.List;
+
+/** A reservation and the products as they stand after it was taken or released. */
+public record ReservationResult(StockReservation reservation, List<Product> products) {
+}
@@ -0,0 +1,13 @@
+package com.example.mall.product.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+public class StockChangeRequest {
+    @NotNull
+    @Positive
+    private Integer quantity;
+
+    public Integer getQuantity() { return quantity; }
+    public void setQuantity(Integer quantity) { this.quantity = quantity; }
+}
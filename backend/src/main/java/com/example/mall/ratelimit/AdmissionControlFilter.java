@@ -0,0 +1,159 @@
+package com.example.mall.ratelimit;
+
+import com.example.mall.auth.SessionToken;
+import com.example.mall.auth.TokenService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admission control for {@code /api/**}, checked before anything touches Mongo:
+ * <ol>
+ *   <li>shedding: while the smoothed Mongo pool wait is above the threshold, LIST requests get 429, and READ
+ *   requests too above twice the threshold; writes and logins still go through;</li>
+ *   <li>a token bucket per client and {@link EndpointClass} (429 with {@code Retry-After} when empty);</li>
+ *   <li>a cap on LIST requests in flight across all clients (503 once a slot is not free within the queue
+ *   timeout), held until an async export completes.</li>
+ * </ol>
+ * A client is the user of a valid bearer token, otherwise the remote address (behind a proxy, set
+ * {@code server.forward-headers-strategy} so that is the real client).
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter {
+    private final TokenService tokenService;
+    private final MongoPoolWaitMonitor poolWait;
+    private final Map<EndpointClass, Limit> limits;
+    private final Cache<String, RateLimiter> buckets;
+    private final Semaphore listSlots;
+    private final long listQueueTimeoutNanos;
+    private final double shedThresholdMillis;
+    private final Map<EndpointClass, Counter> rateLimited = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Counter> shed = new EnumMap<>(EndpointClass.class);
+    private final Counter listFull;
+
+    /** {@code rate} requests per second with bursts of up to {@code burst}. */
+    public record Limit(double rate, int burst) {
+        long intervalNanos() { return (long) (TimeUnit.SECONDS.toNanos(1) / rate); }
+        long burstNanos() { return intervalNanos() * Math.max(1, burst); }
+    }
+
+    public AdmissionControlFilter(TokenService tokenService, MongoPoolWaitMonitor poolWait, MeterRegistry meters,
+                                  Map<EndpointClass, Limit> limits, int maxConcurrentLists, Duration listQueueTimeout,
+                                  Duration shedThreshold, long maxClients) {
+        this.tokenService = tokenService;
+        this.poolWait = poolWait;
+        this.limits = new EnumMap<>(limits);
+        this.buckets = Caffeine.newBuilder().maximumSize(maxClients).expireAfterAccess(Duration.ofMinutes(10)).build();
+        this.listSlots = new Semaphore(Math.max(1, maxConcurrentLists));
+        this.listQueueTimeoutNanos = listQueueTimeout.toNanos();
+        this.shedThresholdMillis = shedThreshold.toNanos() / 1e6;
+        for (EndpointClass c : EndpointClass.values()) {
+            rateLimited.put(c, meters.counter("mall.admission.rejected", "reason", "rate", "class", c.name()));
+            shed.put(c, meters.counter("mall.admission.rejected", "reason", "shed", "class", c.name()));
+        }
+        this.listFull = meters.counter("mall.admission.rejected", "reason", "concurrency", "class", EndpointClass.LIST.name());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        EndpointClass endpoint = EndpointClass.of(request);
+        if (endpoint == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (shouldShed(endpoint)) {
+            shed.get(endpoint).increment();
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, 1, "Server is busy, retry shortly");
+            return;
+        }
+        Limit limit = limits.get(endpoint);
+        if (limit != null) {
+            RateLimiter bucket = buckets.get(endpoint.name() + '|' + clientOf(request), k -> new RateLimiter());
+            long wait = bucket.tryAcquire(System.nanoTime(), limit.intervalNanos(), limit.burstNanos());
+            if (wait > 0) {
+                rateLimited.get(endpoint).increment();
+                reject(response, HttpStatus.TOO_MANY_REQUESTS, retryAfterSeconds(wait), "Rate limit exceeded");
+                return;
+            }
+        }
+        if (endpoint != EndpointClass.LIST) {
+            chain.doFilter(request, response);
+            return;
+        }
+        boolean acquired;
+        try {
+            acquired = listSlots.tryAcquire(listQueueTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            listFull.increment();
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, 1, "Too many list requests in progress, retry shortly");
+            return;
+        }
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> { if (released.compareAndSet(false, true)) listSlots.release(); };
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnComplete(release)); // NDJSON exports keep writing after this returns
+            } else {
+                release.run();
+            }
+        }
+    }
+
+    private boolean shouldShed(EndpointClass endpoint) {
+        if (endpoint != EndpointClass.LIST && endpoint != EndpointClass.READ) return false;
+        double wait = poolWait.averageWaitMillis();
+        return endpoint == EndpointClass.LIST ? wait > shedThresholdMillis : wait > 2 * shedThresholdMillis;
+    }
+
+    private String clientOf(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith("Bearer ")) {
+            SessionToken token = tokenService.verify(header.substring("Bearer ".length()));
+            if (token != null) return "user:" + token.userId();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    /** Whole seconds, rounded up so a client that honours it finds a token when it comes back. */
+    static long retryAfterSeconds(long waitNanos) {
+        return TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1;
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, long retryAfterSeconds, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getWriter().write(message);
+    }
+
+    private record ReleaseOnComplete(Runnable release) implements AsyncListener {
+        @Override public void onComplete(AsyncEvent event) { release.run(); }
+        @Override public void onTimeout(AsyncEvent event) { release.run(); }
+        @Override public void onError(AsyncEvent event) { release.run(); }
+        @Override public void onStartAsync(AsyncEvent event) {}
+    }
+}
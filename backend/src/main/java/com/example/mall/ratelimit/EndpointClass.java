@@ -0,0 +1,35 @@
+package com.example.mall.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.util.UrlPathHelper;
+
+/** Groups of endpoints that share a rate limit, by what a request costs Mongo. */
+public enum EndpointClass {
+    /** Login and logout; login is a bcrypt check. */
+    AUTH,
+    /** Unbounded reads: full lists, exports, search, stats and pages. */
+    LIST,
+    /** Single-document reads. */
+    READ,
+    WRITE;
+
+    /**
+     * Classifies on the path Spring MVC routes (decoded, {@code ;} parameters removed, duplicate slashes merged),
+     * so {@code /api/products;a=1} or {@code /api/%70roducts/export} count as the lists they are.
+     *
+     * @return the class of an API request, or null for paths that are not limited (actuator, preflights)
+     */
+    static EndpointClass of(HttpServletRequest request) {
+        String path = UrlPathHelper.defaultInstance.getPathWithinApplication(request);
+        if (!path.startsWith("/api/") || HttpMethod.OPTIONS.matches(request.getMethod())) return null;
+        if (path.startsWith("/api/auth/")) return AUTH;
+        if (!HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod())) return WRITE;
+        return switch (path) {
+            case "/api/products", "/api/shops", "/api/users", "/api/products/page", "/api/products/by-price",
+                 "/api/products/search", "/api/products/export", "/api/shops/export", "/api/users/export",
+                 "/api/shops/stats" -> LIST;
+            default -> READ;
+        };
+    }
+}
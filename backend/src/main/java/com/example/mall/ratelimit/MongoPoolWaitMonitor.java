@@ -0,0 +1,55 @@
+package com.example.mall.ratelimit;
+
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Smoothed time requests wait for a pooled Mongo connection, fed by the driver's pool events. The average
+ * decays towards zero while no checkouts happen, so shedding stops on its own once the backlog is gone
+ * instead of staying latched at the last high reading.
+ */
+@Component
+public class MongoPoolWaitMonitor implements ConnectionPoolListener {
+    private static final double ALPHA = 0.2;
+    private static final double DECAY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong average = new AtomicLong(Double.doubleToLongBits(0));
+    private volatile long lastSample = System.nanoTime();
+
+    public MongoPoolWaitMonitor(MeterRegistry meters) {
+        Gauge.builder("mall.mongo.pool.wait", this, m -> m.averageWaitMillis())
+                .description("Smoothed connection checkout wait").baseUnit("milliseconds").register(meters);
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        record(event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        record(event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    public double averageWaitMillis() {
+        double decay = Math.exp(-(System.nanoTime() - lastSample) / DECAY_NANOS);
+        return Double.longBitsToDouble(average.get()) * decay / 1_000_000;
+    }
+
+    private void record(long nanos) {
+        long now = System.nanoTime();
+        double decay = Math.exp(-(now - lastSample) / DECAY_NANOS);
+        average.getAndUpdate(bits -> {
+            double current = Double.longBitsToDouble(bits) * decay;
+            return Double.doubleToLongBits(current + ALPHA * (nanos - current));
+        });
+        lastSample = now;
+    }
+}
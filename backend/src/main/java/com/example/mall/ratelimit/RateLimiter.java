@@ -0,0 +1,24 @@
+package com.example.mall.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket in its GCRA form: the whole state is the theoretical arrival time of the next request, so
+ * admitting a request is one CAS and there is nothing to refill. A bucket of {@code burst} tokens refilled
+ * at {@code rate} per second admits a request as long as the arrival time stays within {@code burst}
+ * intervals of now.
+ */
+final class RateLimiter {
+    private final AtomicLong tat = new AtomicLong(Long.MIN_VALUE);
+
+    /** @return 0 when admitted, otherwise the nanoseconds until a token is available */
+    long tryAcquire(long now, long intervalNanos, long burstNanos) {
+        while (true) {
+            long current = tat.get();
+            long next = Math.max(current, now) + intervalNanos;
+            long wait = next - now - burstNanos;
+            if (wait > 0) return wait;
+            if (tat.compareAndSet(current, next)) return 0;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.mall.search;
+
+import java.util.Arrays;
+
+/**
+ * Growable bitset over doc ids, used for the live docs and the docs of each category and shop.
+ */
+final class DocBitSet {
+    private long[] words;
+
+    DocBitSet() { this(64); }
+
+    DocBitSet(int bits) { words = new long[Math.max(1, (bits + 63) >>> 6)]; }
+
+    void set(int doc) {
+        int w = doc >>> 6;
+        if (w >= words.length) words = Arrays.copyOf(words, Math.max(w + 1, words.length * 2));
+        words[w] |= 1L << doc;
+    }
+
+    void clear(int doc) {
+        int w = doc >>> 6;
+        if (w < words.length) words[w] &= ~(1L << doc);
+    }
+
+    boolean get(int doc) {
+        int w = doc >>> 6;
+        return w < words.length && (words[w] & (1L << doc)) != 0;
+    }
+
+    /** @return the next set bit at or after {@code from}, or -1 */
+    int nextSetBit(int from) {
+        int w = from >>> 6;
+        if (w >= words.length) return -1;
+        long word = words[w] & (-1L << from);
+        while (true) {
+            if (word != 0) return (w << 6) + Long.numberOfTrailingZeros(word);
+            if (++w == words.length) return -1;
+            word = words[w];
+        }
+    }
+
+    void clearAll() { Arrays.fill(words, 0L); }
+}
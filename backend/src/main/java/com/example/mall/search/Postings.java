@@ -0,0 +1,66 @@
+package com.example.mall.search;
+
+import java.util.Arrays;
+
+/** Posting list for one term: ascending doc ids with a parallel field-boosted term weight. */
+final class Postings {
+    private int[] docs = new int[4];
+    private float[] weights = new float[4];
+    private int size;
+    private float maxWeight;
+
+    /** Docs are only ever appended in ascending order because doc ids are allocated monotonically. */
+    void add(int doc, float weight) {
+        if (size == docs.length) {
+            docs = Arrays.copyOf(docs, size * 2);
+            weights = Arrays.copyOf(weights, size * 2);
+        }
+        docs[size] = doc;
+        weights[size] = weight;
+        size++;
+        maxWeight = Math.max(maxWeight, weight);
+    }
+
+    int size() { return size; }
+    /** Upper bound of the weights; not lowered when docs are remapped away. */
+    float maxWeight() { return maxWeight; }
+    int doc(int i) { return docs[i]; }
+    float weight(int i) { return weights[i]; }
+
+    /**
+     * Galloping search for {@code doc} starting at {@code from}; returns its index, or {@code -(insertion point) - 1}
+     * so callers scanning ascending docs can resume from the insertion point.
+     */
+    int advance(int from, int doc) {
+        int end = Math.min(size, from + 8); // dense lists usually have the doc within a few entries
+        for (int i = from; i < end; i++) {
+            if (docs[i] >= doc) return docs[i] == doc ? i : -i - 1;
+        }
+        if (end == size) return -size - 1;
+        int bound = 1;
+        int lo = end;
+        while (lo + bound < size && docs[lo + bound] < doc) {
+            lo += bound;
+            bound <<= 1;
+        }
+        return Arrays.binarySearch(docs, lo, Math.min(size, lo + bound + 1), doc);
+    }
+
+    /** Drops docs mapped to -1 and renumbers the rest; the mapping is monotonic so order is preserved. */
+    void remap(int[] newDoc) {
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            int mapped = newDoc[docs[i]];
+            if (mapped >= 0) {
+                docs[n] = mapped;
+                weights[n] = weights[i];
+                n++;
+            }
+        }
+        size = n;
+        if (size < docs.length / 4 && docs.length > 4) {
+            docs = Arrays.copyOf(docs, Math.max(4, size * 2));
+            weights = Arrays.copyOf(weights, docs.length);
+        }
+    }
+}
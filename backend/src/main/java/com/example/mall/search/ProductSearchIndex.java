@@ -0,0 +1,479 @@
+package com.example.mall.search;
+
+import com.example.mall.product.Product;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over the product catalog.
+ *
+ * <p>Every indexed product gets a dense int doc id. Terms from productName, category and description map to
+ * {@link Postings} (ascending doc ids plus a field-boosted weight). Category, shop and price bucket are
+ * stored per doc as ordinals, so a query counts facets as it collects matches; each category and shop also
+ * keeps a {@link DocBitSet} of its live docs so a filtered browse only visits those, and every facet value
+ * keeps its live count so the unfiltered browse needs no counting at all. An update appends a new doc id and
+ * tombstones the old one; once more than half the doc ids are dead the index is compacted in place.
+ *
+ * <p>Counting stops after {@value #MAX_COUNTED} matches, so a term shared by most of the catalog costs no more
+ * than that: the total is then reported as a lower bound and the facets cover those matches. Ranking still
+ * sees every match unless no remaining doc can beat the current top hits.
+ *
+ * <p>Reads take the read lock and writes the write lock. Each doc remembers the product version it was
+ * indexed from so a stale copy (e.g. from the startup scan racing a live update) never overwrites a newer one.
+ */
+@Component
+public class ProductSearchIndex {
+    static final float NAME_BOOST = 3f;
+    static final float CATEGORY_BOOST = 2f;
+    static final float DESCRIPTION_BOOST = 1f;
+    private static final double[] PRICE_EDGES = {10, 50, 100, 500};
+    private static final int MAX_FACET_VALUES = 20;
+    static final int MAX_COUNTED = 25_000;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // per-doc columns, indexed by doc id
+    private String[] ids = new String[1024];
+    private long[] versions = new long[1024];
+    private int[] categoryOrds = new int[1024];
+    private int[] shopOrds = new int[1024];
+    private double[] prices = new double[1024];
+    private int[] priceOrds = new int[1024];
+    private int maxDoc;
+    private int liveDocs;
+    private final DocBitSet live = new DocBitSet();
+
+    private final Map<String, Integer> docById = new HashMap<>();
+    private final Map<String, Postings> terms = new HashMap<>();
+    private final Ordinals categories = new Ordinals();
+    private final Ordinals shops = new Ordinals();
+    private final int[] priceLiveCounts = new int[PRICE_EDGES.length + 1];
+
+    // ids deleted while the startup scan is running, so the scan does not resurrect them
+    private Set<String> removedDuringBuild;
+    private volatile boolean ready;
+
+    public boolean isReady() { return ready; }
+
+    public int size() {
+        lock.readLock().lock();
+        try { return liveDocs; } finally { lock.readLock().unlock(); }
+    }
+
+    /** Snapshot of the indexed product ids. */
+    List<String> ids() {
+        lock.readLock().lock();
+        try { return new ArrayList<>(docById.keySet()); } finally { lock.readLock().unlock(); }
+    }
+
+    void beginBuild() {
+        lock.writeLock().lock();
+        try { removedDuringBuild = new HashSet<>(); } finally { lock.writeLock().unlock(); }
+    }
+
+    void finishBuild() {
+        lock.writeLock().lock();
+        try {
+            removedDuringBuild = null;
+            ready = true;
+        } finally { lock.writeLock().unlock(); }
+    }
+
+    /** Adds a product from the startup scan unless it was deleted or re-indexed from a newer version meanwhile. */
+    void addFromScan(Product p) {
+        lock.writeLock().lock();
+        try {
+            if (removedDuringBuild != null && removedDuringBuild.contains(p.getId())) return;
+            doUpsert(p);
+        } finally { lock.writeLock().unlock(); }
+    }
+
+    public void upsert(Product p) {
+        lock.writeLock().lock();
+        try { doUpsert(p); } finally { lock.writeLock().unlock(); }
+    }
+
+    public void remove(String id) {
+        lock.writeLock().lock();
+        try {
+            if (removedDuringBuild != null) removedDuringBuild.add(id);
+            Integer doc = docById.remove(id);
+            if (doc != null) {
+                tombstone(doc);
+                maybeCompact();
+            }
+        } finally { lock.writeLock().unlock(); }
+    }
+
+    private void doUpsert(Product p) {
+        long version = p.getVersion() == null ? -1 : p.getVersion();
+        Integer old = docById.get(p.getId());
+        if (old != null) {
+            if (versions[old] > version) return;
+            tombstone(old);
+        }
+        int doc = maxDoc++;
+        ensureCapacity(maxDoc);
+        ids[doc] = p.getId();
+        versions[doc] = version;
+        categoryOrds[doc] = categories.ordinal(p.getCategory());
+        shopOrds[doc] = shops.ordinal(p.getShopId());
+        prices[doc] = p.getPrice() == null ? Double.NaN : p.getPrice().doubleValue();
+        priceOrds[doc] = Double.isNaN(prices[doc]) ? -1 : priceBucket(prices[doc]);
+        docById.put(p.getId(), doc);
+        live.set(doc);
+        liveDocs++;
+
+        Map<String, Float> weights = new HashMap<>();
+        addTerms(weights, p.getProductName(), NAME_BOOST);
+        addTerms(weights, p.getCategory(), CATEGORY_BOOST);
+        addTerms(weights, p.getDescription(), DESCRIPTION_BOOST);
+        for (Map.Entry<String, Float> e : weights.entrySet()) {
+            terms.computeIfAbsent(e.getKey(), k -> new Postings()).add(doc, e.getValue());
+        }
+        addToFacets(doc);
+        if (old != null) maybeCompact();
+    }
+
+    private void tombstone(int doc) {
+        live.clear(doc);
+        liveDocs--;
+        if (categoryOrds[doc] >= 0) categories.clear(categoryOrds[doc], doc);
+        if (shopOrds[doc] >= 0) shops.clear(shopOrds[doc], doc);
+        if (priceOrds[doc] >= 0) priceLiveCounts[priceOrds[doc]]--;
+    }
+
+    private void addToFacets(int doc) {
+        if (categoryOrds[doc] >= 0) categories.set(categoryOrds[doc], doc);
+        if (shopOrds[doc] >= 0) shops.set(shopOrds[doc], doc);
+        if (priceOrds[doc] >= 0) priceLiveCounts[priceOrds[doc]]++;
+    }
+
+    private static void addTerms(Map<String, Float> weights, String text, float boost) {
+        for (String term : tokenize(text)) weights.merge(term, boost, Float::sum);
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> out = new ArrayList<>();
+        if (text == null) return out;
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean word = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (word && start < 0) start = i;
+            else if (!word && start >= 0) {
+                out.add(text.substring(start, i).toLowerCase());
+                start = -1;
+            }
+        }
+        return out;
+    }
+
+    private void ensureCapacity(int n) {
+        if (n <= ids.length) return;
+        int cap = Math.max(n, ids.length * 2);
+        ids = Arrays.copyOf(ids, cap);
+        versions = Arrays.copyOf(versions, cap);
+        categoryOrds = Arrays.copyOf(categoryOrds, cap);
+        shopOrds = Arrays.copyOf(shopOrds, cap);
+        prices = Arrays.copyOf(prices, cap);
+        priceOrds = Arrays.copyOf(priceOrds, cap);
+    }
+
+    /** Renumbers live docs densely once tombstones outnumber them, rewriting postings and facet bitsets. */
+    private void maybeCompact() {
+        if (maxDoc < 1024 || liveDocs * 2 > maxDoc) return;
+        int[] newDoc = new int[maxDoc];
+        int n = 0;
+        for (int doc = 0; doc < maxDoc; doc++) {
+            if (!live.get(doc)) { newDoc[doc] = -1; continue; }
+            newDoc[doc] = n;
+            ids[n] = ids[doc];
+            versions[n] = versions[doc];
+            categoryOrds[n] = categoryOrds[doc];
+            shopOrds[n] = shopOrds[doc];
+            prices[n] = prices[doc];
+            priceOrds[n] = priceOrds[doc];
+            n++;
+        }
+        terms.values().forEach(p -> p.remap(newDoc));
+        terms.values().removeIf(p -> p.size() == 0);
+        Arrays.fill(ids, n, maxDoc, null);
+        maxDoc = n;
+
+        live.clearAll(); categories.clearBits(); shops.clearBits();
+        Arrays.fill(priceLiveCounts, 0);
+        for (int doc = 0; doc < n; doc++) {
+            live.set(doc);
+            docById.put(ids[doc], doc);
+            addToFacets(doc);
+        }
+    }
+
+    public SearchResult search(SearchQuery q) {
+        lock.readLock().lock();
+        try {
+            return doSearch(q);
+        } finally { lock.readLock().unlock(); }
+    }
+
+    private SearchResult doSearch(SearchQuery q) {
+        int categoryFilter = q.category() == null ? -1 : categories.find(q.category());
+        int shopFilter = q.shopId() == null ? -1 : shops.find(q.shopId());
+        if ((q.category() != null && categoryFilter < 0) || (q.shopId() != null && shopFilter < 0)) {
+            return SearchResult.empty();
+        }
+        double min = q.minPrice() == null ? Double.NEGATIVE_INFINITY : q.minPrice().doubleValue();
+        double max = q.maxPrice() == null ? Double.POSITIVE_INFINITY : q.maxPrice().doubleValue();
+        boolean priceFilter = q.minPrice() != null || q.maxPrice() != null;
+
+        List<Postings> lists = new ArrayList<>();
+        for (String term : new LinkedHashSet<>(tokenize(q.text()))) {
+            Postings p = terms.get(term);
+            if (p == null) return SearchResult.empty(); // every term must match
+            lists.add(p);
+        }
+
+        // the live docs of the narrowest category/shop filter, so filtered queries only visit those
+        DocBitSet filterDocs = null;
+        int filterCount = Integer.MAX_VALUE;
+        if (categoryFilter >= 0) {
+            filterDocs = categories.bits(categoryFilter);
+            filterCount = categories.liveCount(categoryFilter);
+        }
+        if (shopFilter >= 0 && shops.liveCount(shopFilter) < filterCount) {
+            filterDocs = shops.bits(shopFilter);
+            filterCount = shops.liveCount(shopFilter);
+        }
+
+        Collector c = new Collector(q.offset() + q.limit(), categoryFilter, shopFilter, priceFilter, min, max);
+        if (lists.isEmpty() && filterDocs == null && !priceFilter) {
+            c.collectLive();
+        } else if (lists.isEmpty()) {
+            c.collect(filterDocs == null ? live : filterDocs);
+        } else {
+            lists.sort(Comparator.comparingInt(Postings::size));
+            c.collect(lists, filterCount < lists.get(0).size() ? filterDocs : null);
+        }
+
+        List<ScoredDoc> ranked = new ArrayList<>(c.top);
+        ranked.sort(ScoredDoc.WORST_FIRST.reversed());
+        List<SearchResult.Hit> hits = new ArrayList<>();
+        for (int i = q.offset(); i < ranked.size(); i++) {
+            hits.add(new SearchResult.Hit(ids[ranked.get(i).doc()], ranked.get(i).score()));
+        }
+
+        Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+        facets.put("category", facet(categories, c.categoryCounts));
+        facets.put("shop", facet(shops, c.shopCounts));
+        Map<String, Integer> price = new LinkedHashMap<>();
+        for (int b = 0; b < c.priceCounts.length; b++) {
+            if (c.priceCounts[b] > 0) price.put(bucketLabel(b), c.priceCounts[b]);
+        }
+        facets.put("price", price);
+        return new SearchResult(c.total, c.exact, hits, facets);
+    }
+
+    /** Always positive, which the early exit in {@link Collector} relies on; df may still count dead docs. */
+    private float idf(int df) {
+        df = Math.min(df, liveDocs);
+        return (float) Math.log(1 + (liveDocs - df + 0.5) / (df + 0.5));
+    }
+
+    /** The {@value #MAX_FACET_VALUES} values with the highest non-zero counts, highest first. */
+    private static Map<String, Integer> facet(Ordinals values, int[] counts) {
+        Integer[] order = new Integer[counts.length];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Integer.compare(counts[b], counts[a]));
+        Map<String, Integer> out = new LinkedHashMap<>();
+        for (int i = 0; i < order.length && out.size() < MAX_FACET_VALUES && counts[order[i]] > 0; i++) {
+            out.put(values.value(order[i]), counts[order[i]]);
+        }
+        return out;
+    }
+
+    /** Collects one query's matches: the top {@code want} docs, the total and per-value facet counts. */
+    private final class Collector {
+        final PriorityQueue<ScoredDoc> top;
+        final int want;
+        final int category;
+        final int shop;
+        final boolean priceFilter;
+        final double min;
+        final double max;
+        final int[] categoryCounts = new int[categories.size()];
+        final int[] shopCounts = new int[shops.size()];
+        final int[] priceCounts = new int[priceLiveCounts.length];
+        int total;
+        boolean exact = true;
+
+        Collector(int want, int category, int shop, boolean priceFilter, double min, double max) {
+            this.top = new PriorityQueue<>(Math.max(1, want), ScoredDoc.WORST_FIRST);
+            this.want = want;
+            this.category = category;
+            this.shop = shop;
+            this.priceFilter = priceFilter;
+            this.min = min;
+            this.max = max;
+        }
+
+        /** Unfiltered browse: the first live docs in index order, facets straight from the live counts. */
+        void collectLive() {
+            for (int doc = live.nextSetBit(0); doc >= 0 && top.size() < want; doc = live.nextSetBit(doc + 1)) {
+                top.add(new ScoredDoc(doc, 0f));
+            }
+            total = liveDocs;
+            categories.copyLiveCounts(categoryCounts);
+            shops.copyLiveCounts(shopCounts);
+            System.arraycopy(priceLiveCounts, 0, priceCounts, 0, priceCounts.length);
+        }
+
+        /** Browse over a set of live docs, in index order. */
+        void collect(DocBitSet candidates) {
+            for (int doc = candidates.nextSetBit(0); doc >= 0; doc = candidates.nextSetBit(doc + 1)) {
+                if (!accept(doc)) continue;
+                if (!count(doc) && top.size() >= want) return;
+                if (top.size() < want) top.add(new ScoredDoc(doc, 0f));
+            }
+        }
+
+        /**
+         * Conjunction of {@code lists}, shortest first. The shortest list drives and the others are galloped,
+         * unless {@code filterDocs} is given because it is shorter still; then it drives and every list is galloped.
+         */
+        void collect(List<Postings> lists, DocBitSet filterDocs) {
+            float[] idf = new float[lists.size()];
+            for (int i = 0; i < idf.length; i++) idf[i] = idf(lists.get(i).size());
+            float bound = 0;
+            for (int i = 0; i < idf.length; i++) bound += idf[i] * lists.get(i).maxWeight();
+            int[] cursor = new int[lists.size()];
+            Postings lead = lists.get(0);
+            int first = filterDocs == null ? 1 : 0;
+            int i = -1;
+            int doc = -1;
+            outer:
+            while (true) {
+                float score = 0;
+                if (filterDocs == null) {
+                    if (++i == lead.size()) return;
+                    doc = lead.doc(i);
+                    if (!live.get(doc)) continue;
+                    score = idf[0] * lead.weight(i);
+                } else if ((doc = filterDocs.nextSetBit(doc + 1)) < 0) {
+                    return;
+                }
+                if (!accept(doc)) continue;
+                for (int j = first; j < lists.size(); j++) {
+                    int at = lists.get(j).advance(cursor[j], doc);
+                    if (at < 0) {
+                        cursor[j] = -at - 1;
+                        if (cursor[j] == lists.get(j).size()) return; // list exhausted, nothing later can match
+                        continue outer;
+                    }
+                    cursor[j] = at;
+                    score += idf[j] * lists.get(j).weight(at);
+                }
+                boolean counting = count(doc);
+                if (top.size() < want) {
+                    top.add(new ScoredDoc(doc, score));
+                } else if (score > top.peek().score()) { // ties keep the earlier doc, matching WORST_FIRST
+                    top.poll();
+                    top.add(new ScoredDoc(doc, score));
+                } else if (!counting && top.peek().score() >= bound) {
+                    return; // nothing later can outscore the current top hits
+                }
+            }
+        }
+
+        private boolean accept(int doc) {
+            if (category >= 0 && categoryOrds[doc] != category) return false;
+            if (shop >= 0 && shopOrds[doc] != shop) return false;
+            return !priceFilter || (prices[doc] >= min && prices[doc] <= max);
+        }
+
+        /** Counts the match unless {@value #MAX_COUNTED} were already counted; returns whether it did. */
+        private boolean count(int doc) {
+            if (total == MAX_COUNTED) {
+                exact = false;
+                return false;
+            }
+            total++;
+            if (categoryOrds[doc] >= 0) categoryCounts[categoryOrds[doc]]++;
+            if (shopOrds[doc] >= 0) shopCounts[shopOrds[doc]]++;
+            if (priceOrds[doc] >= 0) priceCounts[priceOrds[doc]]++;
+            return true;
+        }
+    }
+
+    private static int priceBucket(double price) {
+        int b = 0;
+        while (b < PRICE_EDGES.length && price >= PRICE_EDGES[b]) b++;
+        return b;
+    }
+
+    private static String bucketLabel(int b) {
+        if (b == 0) return "<" + fmt(PRICE_EDGES[0]);
+        if (b == PRICE_EDGES.length) return fmt(PRICE_EDGES[b - 1]) + "+";
+        return fmt(PRICE_EDGES[b - 1]) + "-" + fmt(PRICE_EDGES[b]);
+    }
+
+    private static String fmt(double v) { return BigDecimal.valueOf(v).stripTrailingZeros().toPlainString(); }
+
+    private record ScoredDoc(int doc, float score) {
+        // lowest score first (ties: later doc first) so the heap evicts the weakest hit
+        static final Comparator<ScoredDoc> WORST_FIRST =
+                Comparator.comparingDouble(ScoredDoc::score).thenComparing(ScoredDoc::doc, Comparator.reverseOrder());
+    }
+
+    /** Dictionary-encodes a string field and keeps the live docs and their count per value. */
+    private static final class Ordinals {
+        private final Map<String, Integer> ords = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+        private final List<DocBitSet> bits = new ArrayList<>();
+        private int[] liveCounts = new int[16];
+
+        int ordinal(String value) {
+            if (value == null) return -1;
+            return ords.computeIfAbsent(value, v -> {
+                values.add(v);
+                bits.add(new DocBitSet());
+                if (values.size() > liveCounts.length) liveCounts = Arrays.copyOf(liveCounts, liveCounts.length * 2);
+                return values.size() - 1;
+            });
+        }
+
+        int find(String value) { return ords.getOrDefault(value, -1); }
+        int size() { return values.size(); }
+        String value(int ord) { return values.get(ord); }
+        DocBitSet bits(int ord) { return bits.get(ord); }
+        int liveCount(int ord) { return liveCounts[ord]; }
+        void copyLiveCounts(int[] into) { System.arraycopy(liveCounts, 0, into, 0, into.length); }
+
+        void set(int ord, int doc) {
+            bits.get(ord).set(doc);
+            liveCounts[ord]++;
+        }
+
+        void clear(int ord, int doc) {
+            bits.get(ord).clear(doc);
+            liveCounts[ord]--;
+        }
+
+        void clearBits() {
+            bits.forEach(DocBitSet::clearAll);
+            Arrays.fill(liveCounts, 0);
+        }
+    }
+}
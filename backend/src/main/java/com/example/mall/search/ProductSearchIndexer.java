@@ -0,0 +1,112 @@
+package com.example.mall.search;
+
+import com.example.mall.changes.ChangeEvent;
+import com.example.mall.changes.ChangeListener;
+import com.example.mall.config.MongoBootstrap;
+import com.example.mall.product.Product;
+import com.example.mall.product.ProductRepository;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Keeps {@link ProductSearchIndex} in step with the products collection. The index is filled by one scan
+ * on a background thread after startup; saves and deletes (including bulk inserts) arrive as mapping events.
+ * Writes that bypass the mapping events, like bulk updates and batched deletes, call {@link #reindex} or
+ * {@link #removeAll} with the touched ids. Writes made by other instances arrive through {@link #onChanges}.
+ */
+@Component
+public class ProductSearchIndexer extends AbstractMongoEventListener<Product> implements ChangeListener {
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchIndexer.class);
+
+    private final ProductSearchIndex index;
+    private final ProductRepository productRepository;
+
+    public ProductSearchIndexer(ProductSearchIndex index, ProductRepository productRepository) {
+        this.index = index;
+        this.productRepository = productRepository;
+    }
+
+    @EventListener(MongoBootstrap.Completed.class)
+    public void build() {
+        index.beginBuild();
+        Thread builder = new Thread(() -> {
+            long start = System.nanoTime();
+            try (Stream<Product> products = productRepository.streamAllBy()) {
+                products.forEach(index::addFromScan);
+                index.finishBuild();
+                log.info("Product search index built: {} products in {} ms", index.size(), (System.nanoTime() - start) / 1_000_000);
+            } catch (RuntimeException e) {
+                log.error("Product search index build failed; search stays unavailable", e);
+            }
+        }, "product-search-index");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    public void reindex(Collection<String> ids) {
+        productRepository.findAllById(ids).forEach(index::upsert);
+    }
+
+    public void removeAll(Collection<String> ids) {
+        ids.forEach(index::remove);
+    }
+
+    /** Re-reads every product and drops indexed ids that no longer exist; used when change events were lost. */
+    private void rescan() {
+        Set<String> seen = new HashSet<>();
+        try (Stream<Product> products = productRepository.streamAllBy()) {
+            products.forEach(p -> {
+                index.upsert(p);
+                seen.add(p.getId());
+            });
+        }
+        index.ids().stream().filter(id -> !seen.contains(id)).forEach(index::remove);
+    }
+
+    @Override
+    public void onChanges(List<ChangeEvent> events) {
+        if (events.stream().anyMatch(ChangeEvent::isInvalidate)) {
+            rescan();
+            return;
+        }
+        List<String> changed = events.stream().filter(e -> e.affects("products") && e.operation() != ChangeEvent.Operation.DELETE)
+                .map(ChangeEvent::documentId).toList();
+        events.stream().filter(e -> e.affects("products") && e.operation() == ChangeEvent.Operation.DELETE)
+                .map(ChangeEvent::documentId).forEach(index::remove);
+        if (!changed.isEmpty()) reindex(changed);
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Product> event) {
+        index.upsert(event.getSource());
+    }
+
+    /** The event carries the delete query: {@code _id} is an ObjectId (or a string id), or {@code {$in: [...]}}. */
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Product> event) {
+        Document query = event.getSource();
+        Object id = query == null ? null : query.get("_id");
+        if (id instanceof Document in && in.get("$in") instanceof Collection<?> ids) {
+            ids.forEach(each -> index.remove(idString(each)));
+        } else if (id instanceof ObjectId || id instanceof String) {
+            index.remove(idString(id));
+        }
+    }
+
+    private static String idString(Object id) {
+        return id instanceof ObjectId oid ? oid.toHexString() : String.valueOf(id);
+    }
+}
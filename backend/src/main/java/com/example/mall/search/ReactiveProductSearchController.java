@@ -0,0 +1,57 @@
+package com.example.mall.search;
+
+import com.example.mall.product.Product;
+import com.example.mall.product.ReactiveProductRepository;
+import com.example.mall.search.dto.ProductSearchResponse;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/** {@link ProductSearchController} for the reactive profile; the index lookup is in memory, only the hit load goes to Mongo. */
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/products/search")
+public class ReactiveProductSearchController {
+    private static final int MAX_LIMIT = 100;
+    private static final int MAX_OFFSET = 1000;
+
+    private final ProductSearchIndex index;
+    private final ReactiveProductRepository productRepository;
+
+    public ReactiveProductSearchController(ProductSearchIndex index, ReactiveProductRepository productRepository) {
+        this.index = index;
+        this.productRepository = productRepository;
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<?>> search(@RequestParam(value = "q", required = false) String q,
+                                          @RequestParam(value = "category", required = false) String category,
+                                          @RequestParam(value = "shopId", required = false) String shopId,
+                                          @RequestParam(value = "minPrice", required = false) BigDecimal minPrice,
+                                          @RequestParam(value = "maxPrice", required = false) BigDecimal maxPrice,
+                                          @RequestParam(value = "limit", defaultValue = "20") int limit,
+                                          @RequestParam(value = "offset", defaultValue = "0") int offset){
+        if(!index.isReady()){ return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Search index is still loading")); }
+        if(offset < 0 || offset > MAX_OFFSET){ return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body("offset must be between 0 and " + MAX_OFFSET)); }
+        long start = System.nanoTime();
+        SearchResult result = index.search(new SearchQuery(q, category, shopId, minPrice, maxPrice,
+                offset, Math.max(1, Math.min(limit, MAX_LIMIT))));
+        return productRepository.findAllById(result.hits().stream().map(SearchResult.Hit::id).toList())
+                .collectMap(Product::getId, Function.identity()).map(products -> {
+                    List<ProductSearchResponse.Hit> hits = new ArrayList<>();
+                    for(SearchResult.Hit hit : result.hits()){
+                        Product product = products.get(hit.id());
+                        if(product != null){ hits.add(new ProductSearchResponse.Hit(hit.score(), product)); }
+                    }
+                    return ResponseEntity.ok(new ProductSearchResponse(result.total(), result.totalExact(), hits, result.facets(),
+                            (System.nanoTime() - start) / 1_000_000));
+                });
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.mall.search;
+
+import java.math.BigDecimal;
+
+public record SearchQuery(String text, String category, String shopId, BigDecimal minPrice, BigDecimal maxPrice,
+                          int offset, int limit) {
+}
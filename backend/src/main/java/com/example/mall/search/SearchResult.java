@@ -0,0 +1,16 @@
+package com.example.mall.search;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ranked product ids plus facet counts (facet name to value to count). When {@code totalExact} is false,
+ * {@code total} and the facets only cover the first matches in index order and the real total is larger.
+ */
+public record SearchResult(int total, boolean totalExact, List<Hit> hits, Map<String, Map<String, Integer>> facets) {
+    public record Hit(String id, float score) {}
+
+    static SearchResult empty() {
+        return new SearchResult(0, true, List.of(), Map.of("category", Map.of(), "shop", Map.of(), "price", Map.of()));
+    }
+}
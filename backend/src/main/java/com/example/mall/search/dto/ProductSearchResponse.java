@@ -0,0 +1,41 @@
+package com.example.mall.search.dto;
+
+import com.example.mall.product.Product;
+
+import java.util.List;
+import java.util.Map;
+
+public class ProductSearchResponse {
+    private final int total;
+    private final boolean totalExact;
+    private final List<Hit> hits;
+    private final Map<String, Map<String, Integer>> facets;
+    private final long tookMs;
+
+    public ProductSearchResponse(int total, boolean totalExact, List<Hit> hits, Map<String, Map<String, Integer>> facets, long tookMs) {
+        this.total = total;
+        this.totalExact = totalExact;
+        this.hits = hits;
+        this.facets = facets;
+        this.tookMs = tookMs;
+    }
+
+    public int getTotal() { return total; }
+    public boolean isTotalExact() { return totalExact; }
+    public List<Hit> getHits() { return hits; }
+    public Map<String, Map<String, Integer>> getFacets() { return facets; }
+    public long getTookMs() { return tookMs; }
+
+    public static class Hit {
+        private final float score;
+        private final Product product;
+
+        public Hit(float score, Product product) {
+            this.score = score;
+            this.product = product;
+        }
+
+        public float getScore() { return score; }
+        public Product getProduct() { return product; }
+    }
+}
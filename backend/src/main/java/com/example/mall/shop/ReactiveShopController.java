@@ -0,0 +1,135 @@
+package com.example.mall.shop;
+
+import com.example.mall.audit.AuditEvent.Action;
+import com.example.mall.audit.AuditLog;
+import com.example.mall.auth.SessionToken;
+import com.example.mall.common.ReactiveConditionalGet;
+import com.example.mall.shop.dto.ShopCreateRequest;
+import com.example.mall.shop.dto.ShopUpdateRequest;
+import com.example.mall.user.ReactiveUserRepository;
+import jakarta.validation.Valid;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.URI;
+import java.util.List;
+
+/**
+ * Non-blocking twin of {@link ShopController}, active under the {@code reactive} profile, serving the same
+ * routes. Stats and shop deletion go through the shared blocking services on the bounded elastic scheduler,
+ * so products of a deleted shop are removed by the same background job.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/shops")
+public class ReactiveShopController {
+    private final ReactiveShopRepository shopRepository;
+    private final ReactiveUserRepository userRepository;
+    private final ShopStatsService shopStatsService;
+    private final ShopDeletionService shopDeletionService;
+    private final ReactiveConditionalGet conditionalGet;
+    private final AuditLog auditLog;
+
+    public ReactiveShopController(ReactiveShopRepository shopRepository, ReactiveUserRepository userRepository,
+                                  ShopStatsService shopStatsService, ShopDeletionService shopDeletionService,
+                                  ReactiveConditionalGet conditionalGet, AuditLog auditLog) {
+        this.shopRepository = shopRepository;
+        this.userRepository = userRepository;
+        this.shopStatsService = shopStatsService;
+        this.shopDeletionService = shopDeletionService;
+        this.conditionalGet = conditionalGet;
+        this.auditLog = auditLog;
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<?>> list(@RequestParam(value = "view", defaultValue = "full") String view,
+                                        @RequestParam(value = "fields", required = false) String fields, ServerWebExchange exchange){
+        List<String> selected;
+        try { selected = fields == null ? null : ShopController.LIST_FIELDS.parse(fields); }
+        catch (IllegalArgumentException e) { return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage())); }
+        return conditionalGet.<List<?>>list(exchange, Shop.class, null, () -> {
+            if(selected != null){ return shopRepository.findFields(selected).collectList().map(l -> ShopController.LIST_FIELDS.render(l, selected)); }
+            return ("summary".equals(view) ? shopRepository.findSummariesBy() : shopRepository.findAll()).collectList().map(l -> (List<?>) l);
+        }).<ResponseEntity<?>>map(r -> r);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Shop> export(){ return shopRepository.findAll(); }
+
+    @GetMapping("/stats")
+    public Mono<List<ShopStats>> stats(){
+        return Mono.fromCallable(shopStatsService::forAllShops).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<?>> create(@Valid @RequestBody ShopCreateRequest req,
+                                          @RequestAttribute(SessionToken.REQUEST_ATTRIBUTE) SessionToken caller){
+        return userRepository.existsById(req.getOwnerUserId()).flatMap(exists -> {
+            if(!exists){ return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Owner userId not found")); }
+            Shop s = new Shop();
+            s.setShopName(req.getShopName());
+            s.setDescription(req.getDescription());
+            s.setOwnerUserId(req.getOwnerUserId());
+            s.setContactNumber(req.getContactNumber());
+            s.setAddress(req.getAddress());
+            return shopRepository.save(s).map(saved -> {
+                auditLog.record(Action.CREATE, "shops", saved.getId(), caller);
+                return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+            });
+        });
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Shop>> get(@PathVariable("id") String id, ServerWebExchange exchange){
+        return shopRepository.findById(id).map(s -> conditionalGet.single(exchange, null, s.getUpdatedAt(), s))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{id}/stats")
+    public Mono<ResponseEntity<ShopStats>> stats(@PathVariable("id") String id){
+        return shopRepository.existsById(id).flatMap(exists -> exists
+                ? Mono.fromCallable(() -> ResponseEntity.ok(shopStatsService.forShop(id))).subscribeOn(Schedulers.boundedElastic())
+                : Mono.just(ResponseEntity.notFound().<ShopStats>build()));
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<?>> update(@PathVariable("id") String id, @Valid @RequestBody ShopUpdateRequest req,
+                                          @RequestAttribute(SessionToken.REQUEST_ATTRIBUTE) SessionToken caller){
+        Mono<Boolean> ownerOk = req.getOwnerUserId() != null ? userRepository.existsById(req.getOwnerUserId()) : Mono.just(true);
+        return shopRepository.findById(id).flatMap(existing -> ownerOk.flatMap(ok -> {
+            if(!ok){ return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Owner userId not found")); }
+            if(req.getShopName()!=null) existing.setShopName(req.getShopName());
+            if(req.getDescription()!=null) existing.setDescription(req.getDescription());
+            if(req.getOwnerUserId()!=null) existing.setOwnerUserId(req.getOwnerUserId());
+            if(req.getContactNumber()!=null) existing.setContactNumber(req.getContactNumber());
+            if(req.getAddress()!=null) existing.setAddress(req.getAddress());
+            return shopRepository.save(existing).<ResponseEntity<?>>map(saved -> {
+                auditLog.record(Action.UPDATE, "shops", id, caller);
+                return ResponseEntity.ok(saved);
+            });
+        })).defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /** As {@link ShopController#delete}: 202 with the job, products removed in the background. */
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<ShopDeletion>> delete(@PathVariable("id") String id,
+                                                     @RequestAttribute(SessionToken.REQUEST_ATTRIBUTE) SessionToken caller){
+        return shopRepository.existsById(id).flatMap(exists -> exists
+                ? Mono.fromCallable(() -> shopDeletionService.delete(id, caller)).subscribeOn(Schedulers.boundedElastic())
+                        .map(job -> ResponseEntity.accepted().location(URI.create("/api/shops/" + id + "/deletion")).body(job))
+                : Mono.just(ResponseEntity.notFound().<ShopDeletion>build()));
+    }
+
+    @GetMapping("/{id}/deletion")
+    public Mono<ResponseEntity<ShopDeletion>> deletion(@PathVariable("id") String id){
+        return Mono.fromCallable(() -> shopDeletionService.progress(id)).subscribeOn(Schedulers.boundedElastic())
+                .map(ResponseEntity::ok).defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.mall.shop;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+
+public interface ReactiveShopRepository extends ReactiveMongoRepository<Shop, String>, ReactiveShopRepositoryCustom {
+    Flux<ShopSummary> findSummariesBy();
+}
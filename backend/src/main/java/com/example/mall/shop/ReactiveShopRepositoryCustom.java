@@ -0,0 +1,10 @@
+package com.example.mall.shop;
+
+import reactor.core.publisher.Flux;
+
+import java.util.Collection;
+
+public interface ReactiveShopRepositoryCustom {
+    /** Reactive counterpart of {@link ShopRepositoryCustom#findFields}. */
+    Flux<Shop> findFields(Collection<String> fields);
+}
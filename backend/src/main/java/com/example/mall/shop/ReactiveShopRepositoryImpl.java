@@ -0,0 +1,19 @@
+package com.example.mall.shop;
+
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Flux;
+
+import java.util.Collection;
+
+class ReactiveShopRepositoryImpl implements ReactiveShopRepositoryCustom {
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    ReactiveShopRepositoryImpl(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Flux<Shop> findFields(Collection<String> fields) {
+        return mongoTemplate.find(ShopRepositoryImpl.fieldsQuery(fields), Shop.class);
+    }
+}
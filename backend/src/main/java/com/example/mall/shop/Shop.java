@@ -3,18 +3,20 @@ package com.example.mall.shop;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.IndexDirection;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
-import java.util.UUID;
 
 @Document(collection = "shops")
 public class Shop {
     @Id
-    private String id; // store UUID as string
+    private String id; // assigned on first insert by IdAssignmentCallback; ObjectId hex unless configured otherwise
 
     private String shopName;
     private String description;
+    @Indexed
     private String ownerUserId; // reference to User.id
     private String contactNumber;
     private String address;
@@ -23,11 +25,11 @@ public class Shop {
     private Instant createdAt;
 
     @LastModifiedDate
+    @Indexed(direction = IndexDirection.DESCENDING) // newest-first lookup behind the list ETags
     private Instant updatedAt;
 
-    public Shop(){ this.id = UUID.randomUUID().toString(); }
-
     public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
     public String getShopName() { return shopName; }
     public void setShopName(String shopName) { this.shopName = shopName; }
     public String getDescription() { return description; }
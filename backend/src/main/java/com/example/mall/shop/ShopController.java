@@ -1,28 +1,72 @@
 package com.example.mall.shop;
 
+import com.example.mall.audit.AuditEvent.Action;
+import com.example.mall.audit.AuditLog;
+import com.example.mall.auth.SessionToken;
+import com.example.mall.common.ConditionalGet;
+import com.example.mall.common.FieldSelection;
+import com.example.mall.common.NdjsonExporter;
 import com.example.mall.user.UserRepository;
 import com.example.mall.shop.dto.ShopCreateRequest;
 import com.example.mall.shop.dto.ShopUpdateRequest;
 import jakarta.validation.Valid;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.net.URI;
 import java.util.List;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/shops")
 public class ShopController {
+    /** What {@code fields=} may name on the list; shared with {@link ReactiveShopController}. */
+    static final FieldSelection<Shop> LIST_FIELDS = new FieldSelection<Shop>()
+            .allow("id", Shop::getId).allow("shopName", Shop::getShopName).allow("description", Shop::getDescription)
+            .allow("ownerUserId", Shop::getOwnerUserId).allow("contactNumber", Shop::getContactNumber).allow("address", Shop::getAddress)
+            .allow("createdAt", Shop::getCreatedAt).allow("updatedAt", Shop::getUpdatedAt);
+
     private final ShopRepository shopRepository;
     private final UserRepository userRepository;
+    private final NdjsonExporter ndjsonExporter;
+    private final ShopStatsService shopStatsService;
+    private final ShopDeletionService shopDeletionService;
+    private final ConditionalGet conditionalGet;
+    private final AuditLog auditLog;
 
-    public ShopController(ShopRepository shopRepository, UserRepository userRepository) {
+    public ShopController(ShopRepository shopRepository, UserRepository userRepository, NdjsonExporter ndjsonExporter,
+                          ShopStatsService shopStatsService, ShopDeletionService shopDeletionService, ConditionalGet conditionalGet,
+                          AuditLog auditLog) {
         this.shopRepository = shopRepository;
         this.userRepository = userRepository;
+        this.ndjsonExporter = ndjsonExporter;
+        this.shopStatsService = shopStatsService;
+        this.shopDeletionService = shopDeletionService;
+        this.conditionalGet = conditionalGet;
+        this.auditLog = auditLog;
     }
 
     @GetMapping
-    public List<Shop> list(){ return shopRepository.findAll(); }
+    public ResponseEntity<?> list(@RequestParam(value = "view", defaultValue = "full") String view,
+                                  @RequestParam(value = "fields", required = false) String fields, WebRequest request){
+        List<String> selected;
+        try { selected = fields == null ? null : LIST_FIELDS.parse(fields); }
+        catch (IllegalArgumentException e) { return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage()); }
+        return conditionalGet.<List<?>>list(request, Shop.class, null, () -> {
+            if(selected != null){ return LIST_FIELDS.render(shopRepository.findFields(selected), selected); } // takes precedence over view=
+            return "summary".equals(view) ? shopRepository.findSummariesBy() : shopRepository.findAll();
+        });
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(){ return ndjsonExporter.export(shopRepository::streamAllBy); }
+
+    @GetMapping("/stats")
+    public List<ShopStats> stats(){ return shopStatsService.forAllShops(); }
 
     @PostMapping
     public ResponseEntity<?> create(@Valid @RequestBody ShopCreateRequest req){
@@ -35,16 +79,25 @@ public class ShopController {
         s.setOwnerUserId(req.getOwnerUserId());
         s.setContactNumber(req.getContactNumber());
         s.setAddress(req.getAddress());
-        return ResponseEntity.status(HttpStatus.CREATED).body(shopRepository.save(s));
+        Shop saved = shopRepository.save(s);
+        auditLog.record(Action.CREATE, "shops", saved.getId());
+        return ResponseEntity.status(HttpStatus.CREATED).body(saved);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Shop> get(@PathVariable("id") String id){
-        return shopRepository.findById(id).map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<Shop> get(@PathVariable("id") String id, WebRequest request){
+        return shopRepository.findCachedById(id).map(s -> conditionalGet.single(request, null, s.getUpdatedAt(), s))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{id}/stats")
+    public ResponseEntity<ShopStats> stats(@PathVariable("id") String id){
+        if(!shopRepository.existsById(id)){ return ResponseEntity.notFound().build(); }
+        return ResponseEntity.ok(shopStatsService.forShop(id));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<?> update(@PathVariable("id") String id, @RequestBody ShopUpdateRequest req){
+    public ResponseEntity<?> update(@PathVariable("id") String id, @Valid @RequestBody ShopUpdateRequest req){
         return shopRepository.findById(id).map(existing -> {
             if(req.getOwnerUserId()!=null && !userRepository.existsById(req.getOwnerUserId())){
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Owner userId not found");
@@ -54,13 +107,24 @@ public class ShopController {
             if(req.getOwnerUserId()!=null) existing.setOwnerUserId(req.getOwnerUserId());
             if(req.getContactNumber()!=null) existing.setContactNumber(req.getContactNumber());
             if(req.getAddress()!=null) existing.setAddress(req.getAddress());
-            return ResponseEntity.ok(shopRepository.save(existing));
+            Shop saved = shopRepository.save(existing);
+            auditLog.record(Action.UPDATE, "shops", id);
+            return ResponseEntity.ok(saved);
         }).orElse(ResponseEntity.notFound().build());
     }
 
+    /** The shop is gone on return; its products are removed in the background, progress at {@code /{id}/deletion}. */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> delete(@PathVariable("id") String id){
-        if(shopRepository.existsById(id)) { shopRepository.deleteById(id); return ResponseEntity.noContent().build(); }
-        return ResponseEntity.notFound().build();
+    public ResponseEntity<ShopDeletion> delete(@PathVariable("id") String id,
+                                               @RequestAttribute(SessionToken.REQUEST_ATTRIBUTE) SessionToken caller){
+        if(!shopRepository.existsById(id)){ return ResponseEntity.notFound().build(); }
+        ShopDeletion job = shopDeletionService.delete(id, caller);
+        return ResponseEntity.accepted().location(URI.create("/api/shops/" + id + "/deletion")).body(job);
+    }
+
+    @GetMapping("/{id}/deletion")
+    public ResponseEntity<ShopDeletion> deletion(@PathVariable("id") String id){
+        ShopDeletion job = shopDeletionService.progress(id);
+        return job != null ? ResponseEntity.ok(job) : ResponseEntity.notFound().build();
     }
 }
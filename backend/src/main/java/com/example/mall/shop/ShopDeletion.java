@@ -0,0 +1,42 @@
+package com.example.mall.shop;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/** Progress of removing a deleted shop's products; one document per shop, kept after it finishes. */
+@Document(collection = "shop_deletions")
+public class ShopDeletion {
+    public enum Status { PENDING, RUNNING, DONE, FAILED }
+
+    @Id
+    private String shopId;
+
+    private Status status;
+    private long productsTotal; // count when the deletion was requested
+    private long productsDeleted;
+    private String error;
+    private Instant requestedAt;
+    private Instant updatedAt;
+    private Instant finishedAt;
+
+    public ShopDeletion() {}
+
+    public ShopDeletion(String shopId, long productsTotal) {
+        this.shopId = shopId;
+        this.status = Status.PENDING;
+        this.productsTotal = productsTotal;
+        this.requestedAt = Instant.now();
+        this.updatedAt = requestedAt;
+    }
+
+    public String getShopId() { return shopId; }
+    public Status getStatus() { return status; }
+    public long getProductsTotal() { return productsTotal; }
+    public long getProductsDeleted() { return productsDeleted; }
+    public String getError() { return error; }
+    public Instant getRequestedAt() { return requestedAt; }
+    public Instant getUpdatedAt() { return updatedAt; }
+    public Instant getFinishedAt() { return finishedAt; }
+}
@@ -0,0 +1,135 @@
+package com.example.mall.shop;
+
+import com.example.mall.audit.AuditEvent.Action;
+import com.example.mall.audit.AuditLog;
+import com.example.mall.auth.SessionToken;
+import com.example.mall.config.CacheConfig;
+import com.example.mall.config.MongoBootstrap;
+import com.example.mall.product.Product;
+import com.example.mall.search.ProductSearchIndexer;
+import com.example.mall.shop.ShopDeletion.Status;
+import com.mongodb.client.result.DeleteResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Deletes shops together with their products. The shop document goes away immediately; its products are
+ * removed afterwards on one background thread, {@code mall.shops.delete.batch-size} ids per {@code deleteMany}
+ * with {@code mall.shops.delete.batch-pause} between batches so a large shop does not saturate Mongo.
+ *
+ * <p>Progress lives in {@code shop_deletions}, so a job cut short by a restart is picked up again on the next
+ * startup. Each batch re-queries the products still left, which makes running a job twice harmless.
+ */
+@Service
+public class ShopDeletionService implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(ShopDeletionService.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final ShopRepository shopRepository;
+    private final ShopStatsService shopStatsService;
+    private final ProductSearchIndexer searchIndexer;
+    private final Cache productCache;
+    private final AuditLog auditLog;
+    private final int batchSize;
+    private final Duration batchPause;
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "shop-deletion");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public ShopDeletionService(MongoTemplate mongoTemplate, ShopRepository shopRepository, ShopStatsService shopStatsService,
+                               ProductSearchIndexer searchIndexer, CacheManager cacheManager, AuditLog auditLog,
+                               @Value("${mall.shops.delete.batch-size:500}") int batchSize,
+                               @Value("${mall.shops.delete.batch-pause:100ms}") Duration batchPause) {
+        this.mongoTemplate = mongoTemplate;
+        this.shopRepository = shopRepository;
+        this.shopStatsService = shopStatsService;
+        this.searchIndexer = searchIndexer;
+        this.productCache = cacheManager.getCache(CacheConfig.PRODUCTS);
+        this.auditLog = auditLog;
+        this.batchSize = Math.max(1, batchSize);
+        this.batchPause = batchPause;
+    }
+
+    /** Removes the shop now and queues the removal of its products; returns the job to poll. */
+    public ShopDeletion delete(String shopId, SessionToken caller) {
+        long products = mongoTemplate.count(Query.query(Criteria.where("shopId").is(shopId)), Product.class);
+        ShopDeletion job = mongoTemplate.save(new ShopDeletion(shopId, products)); // recorded before the shop goes, so a crash in between still resumes
+        shopRepository.deleteById(shopId);
+        auditLog.record(Action.DELETE, "shops", shopId, caller);
+        worker.execute(() -> run(shopId));
+        return job;
+    }
+
+    public ShopDeletion progress(String shopId) {
+        return mongoTemplate.findById(shopId, ShopDeletion.class);
+    }
+
+    @EventListener(MongoBootstrap.Completed.class)
+    public void resumeUnfinished() {
+        worker.execute(() -> { // looked up on the worker so startup does not wait on Mongo
+            List<ShopDeletion> unfinished;
+            try {
+                unfinished = mongoTemplate.find(Query.query(Criteria.where("status").ne(Status.DONE)), ShopDeletion.class);
+            } catch (RuntimeException e) {
+                log.warn("Could not look up unfinished shop deletions; they resume on the next start", e);
+                return;
+            }
+            for (ShopDeletion job : unfinished) {
+                log.info("Resuming deletion of shop {} ({} of {} products removed)", job.getShopId(), job.getProductsDeleted(), job.getProductsTotal());
+                worker.execute(() -> run(job.getShopId()));
+            }
+        });
+    }
+
+    @Override
+    public void destroy() {
+        worker.shutdownNow(); // an interrupted job stays RUNNING and resumes on the next start
+    }
+
+    private void run(String shopId) {
+        Query job = Query.query(Criteria.where("shopId").is(shopId));
+        try {
+            shopRepository.deleteById(shopId);
+            mongoTemplate.updateFirst(job, new Update().set("status", Status.RUNNING).set("updatedAt", Instant.now()), ShopDeletion.class);
+            while (true) {
+                Query remaining = Query.query(Criteria.where("shopId").is(shopId)).limit(batchSize);
+                remaining.fields().include("id");
+                List<String> ids = mongoTemplate.find(remaining, Product.class).stream().map(Product::getId).toList();
+                if (ids.isEmpty()) break;
+                DeleteResult result = mongoTemplate.remove(Query.query(Criteria.where("id").in(ids)), Product.class);
+                ids.forEach(productCache::evict);
+                searchIndexer.removeAll(ids); // deleteMany only reports the $in filter to the mapping events
+                auditLog.record(Action.DELETE, "products", ids);
+                mongoTemplate.updateFirst(job, new Update().inc("productsDeleted", result.getDeletedCount()).set("updatedAt", Instant.now()), ShopDeletion.class);
+                if (ids.size() < batchSize) break;
+                Thread.sleep(batchPause.toMillis());
+            }
+            shopStatsService.markDirty(shopId);
+            Instant now = Instant.now();
+            mongoTemplate.updateFirst(job, new Update().set("status", Status.DONE).set("updatedAt", now).set("finishedAt", now), ShopDeletion.class);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.error("Deleting products of shop {} failed; retried on next startup", shopId, e);
+            mongoTemplate.updateFirst(job, new Update().set("status", Status.FAILED).set("error", e.getMessage()).set("updatedAt", Instant.now()), ShopDeletion.class);
+        }
+    }
+}
@@ -1,6 +1,40 @@
 package com.example.mall.shop;
 
+import com.example.mall.config.CacheConfig;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface ShopRepository extends MongoRepository<Shop, String> {
+public interface ShopRepository extends MongoRepository<Shop, String>, ShopRepositoryCustom {
+    Stream<Shop> streamAllBy();
+
+    List<ShopSummary> findSummariesBy();
+
+    /** Single {@code $in} round trip returning only the {@code _id} of the shops that exist. */
+    @Query(value = "{ '_id': { '$in': ?0 } }", fields = "{ '_id': 1 }")
+    List<Shop> findIdsByIdIn(Collection<String> ids);
+
+    @Query(value = "{ 'ownerUserId': ?0 }", fields = "{ '_id': 1 }")
+    List<Shop> findIdsByOwnerUserId(String ownerUserId);
+
+    /** Cached lookup for read-only callers; read-modify-write paths keep using the uncached {@link #findById}. */
+    @Cacheable(cacheNames = CacheConfig.SHOPS, unless = "#result == null")
+    default Optional<Shop> findCachedById(String id) { return findById(id); }
+
+    @Override
+    @Cacheable(CacheConfig.SHOP_EXISTS)
+    boolean existsById(String id);
+
+    @Override
+    @CacheEvict(cacheNames = {CacheConfig.SHOPS, CacheConfig.SHOP_EXISTS}, key = "#p0.id")
+    <S extends Shop> S save(S entity);
+
+    @Override
+    @CacheEvict(cacheNames = {CacheConfig.SHOPS, CacheConfig.SHOP_EXISTS}, key = "#p0")
+    void deleteById(String id);
 }
@@ -0,0 +1,9 @@
+package com.example.mall.shop;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ShopRepositoryCustom {
+    /** All shops with only {@code fields} read from Mongo; the query behind {@code fields=}. */
+    List<Shop> findFields(Collection<String> fields);
+}
@@ -0,0 +1,27 @@
+package com.example.mall.shop;
+
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Collection;
+import java.util.List;
+
+class ShopRepositoryImpl implements ShopRepositoryCustom {
+    private final MongoTemplate mongoTemplate;
+
+    ShopRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<Shop> findFields(Collection<String> fields) {
+        return mongoTemplate.find(fieldsQuery(fields), Shop.class);
+    }
+
+    /** Shared with {@link ReactiveShopRepositoryImpl#findFields}. */
+    static Query fieldsQuery(Collection<String> fields) {
+        Query query = new Query();
+        query.fields().include(fields.toArray(String[]::new));
+        return query;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.mall.shop;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Product totals of one shop, overall and per category. Computed from the products collection by
+ * {@link ShopStatsService}; also the document stored in {@code shop_stats} when rollups are enabled.
+ */
+@Document(collection = "shop_stats")
+public class ShopStats {
+    @Id
+    private String shopId;
+
+    private long productCount;
+    private long totalStock;
+    private BigDecimal stockValue; // sum of price * quantity
+    private List<CategoryStats> categories;
+    private Instant computedAt;
+
+    public ShopStats() {}
+
+    public ShopStats(String shopId, long productCount, long totalStock, BigDecimal stockValue, List<CategoryStats> categories, Instant computedAt) {
+        this.shopId = shopId;
+        this.productCount = productCount;
+        this.totalStock = totalStock;
+        this.stockValue = stockValue;
+        this.categories = categories;
+        this.computedAt = computedAt;
+    }
+
+    public static ShopStats empty(String shopId) {
+        return new ShopStats(shopId, 0, 0, BigDecimal.ZERO, List.of(), Instant.now());
+    }
+
+    public String getShopId() { return shopId; }
+    public long getProductCount() { return productCount; }
+    public long getTotalStock() { return totalStock; }
+    public BigDecimal getStockValue() { return stockValue; }
+    public List<CategoryStats> getCategories() { return categories; }
+    public Instant getComputedAt() { return computedAt; }
+
+    public static class CategoryStats {
+        private String category;
+        private long productCount;
+        private long totalStock;
+        private BigDecimal stockValue;
+
+        public CategoryStats() {}
+
+        public CategoryStats(String category, long productCount, long totalStock, BigDecimal stockValue) {
+            this.category = category;
+            this.productCount = productCount;
+            this.totalStock = totalStock;
+            this.stockValue = stockValue;
+        }
+
+        public String getCategory() { return category; }
+        public long getProductCount() { return productCount; }
+        public long getTotalStock() { return totalStock; }
+        public BigDecimal getStockValue() { return stockValue; }
+    }
+}
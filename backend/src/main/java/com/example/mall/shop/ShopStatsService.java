@@ -0,0 +1,182 @@
+package com.example.mall.shop;
+
+import com.example.mall.config.MongoBootstrap;
+import com.example.mall.shop.ShopStats.CategoryStats;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-shop product totals from a {@code $match}/{@code $group} pipeline over {@code products}.
+ *
+ * <p>By default every request runs the pipeline. With {@code mall.shops.stats.rollup=true} the results are
+ * materialized in {@code shop_stats} instead: the product write paths call {@link #markDirty} and a background
+ * thread recomputes only the dirty shops every {@code mall.shops.stats.rollup-interval}, so reads are a
+ * single-document lookup that may lag writes by up to one interval.
+ */
+@Service
+public class ShopStatsService implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(ShopStatsService.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean rollup;
+    private final Duration interval;
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService refresher;
+    private volatile boolean rollupReady;
+
+    public ShopStatsService(MongoTemplate mongoTemplate,
+                            @Value("${mall.shops.stats.rollup:false}") boolean rollup,
+                            @Value("${mall.shops.stats.rollup-interval:5s}") Duration interval) {
+        this.mongoTemplate = mongoTemplate;
+        this.rollup = rollup;
+        this.interval = interval;
+        this.refresher = rollup ? Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "shop-stats-rollup");
+            t.setDaemon(true);
+            return t;
+        }) : null;
+    }
+
+    public ShopStats forShop(String shopId) {
+        if (rollupReady) {
+            ShopStats stored = mongoTemplate.findById(shopId, ShopStats.class);
+            return stored != null ? stored : ShopStats.empty(shopId);
+        }
+        List<ShopStats> computed = compute(Criteria.where("shopId").is(shopId));
+        return computed.isEmpty() ? ShopStats.empty(shopId) : computed.get(0);
+    }
+
+    /** Stats of every shop that has at least one product, ordered by shop id. */
+    public List<ShopStats> forAllShops() {
+        if (rollupReady) {
+            return mongoTemplate.find(new Query().with(Sort.by("shopId")), ShopStats.class);
+        }
+        return compute(Criteria.where("shopId").ne(null));
+    }
+
+    /** Records that products of these shops changed; a no-op unless rollups are enabled. */
+    public void markDirty(String... shopIds) {
+        if (!rollup) return;
+        for (String shopId : shopIds) {
+            if (shopId != null) dirty.add(shopId);
+        }
+    }
+
+    public void markDirty(Collection<String> shopIds) {
+        markDirty(shopIds.toArray(String[]::new));
+    }
+
+    @EventListener(MongoBootstrap.Completed.class)
+    public void startRollups() {
+        if (!rollup) return;
+        refresher.execute(this::rebuild);
+        long millis = Math.max(100, interval.toMillis());
+        refresher.scheduleWithFixedDelay(this::refreshDirty, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        if (refresher != null) refresher.shutdownNow();
+    }
+
+    private void rebuild() {
+        long start = System.nanoTime();
+        try {
+            dirty.clear(); // everything written so far is covered by the full pass below
+            List<ShopStats> all = compute(Criteria.where("shopId").ne(null));
+            all.forEach(mongoTemplate::save);
+            Set<String> current = new HashSet<>();
+            all.forEach(s -> current.add(s.getShopId()));
+            mongoTemplate.remove(Query.query(Criteria.where("shopId").nin(current)), ShopStats.class);
+            rollupReady = true;
+            log.info("Shop stats rollup built: {} shops in {} ms", all.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.error("Shop stats rollup build failed; stats are computed per request", e);
+        }
+    }
+
+    private void refreshDirty() {
+        if (!rollupReady || dirty.isEmpty()) return;
+        List<String> batch = new ArrayList<>(dirty);
+        dirty.removeAll(batch); // writes landing from here on mark the shop again for the next pass
+        try {
+            List<ShopStats> fresh = compute(Criteria.where("shopId").in(batch));
+            fresh.forEach(mongoTemplate::save);
+            Set<String> gone = new HashSet<>(batch);
+            fresh.forEach(s -> gone.remove(s.getShopId()));
+            if (!gone.isEmpty()) mongoTemplate.remove(Query.query(Criteria.where("shopId").in(gone)), ShopStats.class);
+        } catch (RuntimeException e) {
+            dirty.addAll(batch);
+            log.warn("Shop stats refresh failed for {} shops; retrying next interval", batch.size(), e);
+        }
+    }
+
+    private List<ShopStats> compute(Criteria match) {
+        // price is stored as a decimal string, so it is converted before multiplying; null prices or
+        // quantities drop out of the value sum the same way $sum skips non-numeric values
+        Document value = new Document("$multiply", List.of(new Document("$toDecimal", "$price"), "$quantity"));
+        Aggregation pipeline = Aggregation.newAggregation(
+                Aggregation.match(match),
+                Aggregation.stage(new Document("$group", new Document("_id", new Document("shopId", "$shopId").append("category", "$category"))
+                        .append("productCount", new Document("$sum", 1))
+                        .append("totalStock", new Document("$sum", "$quantity"))
+                        .append("stockValue", new Document("$sum", value)))),
+                Aggregation.stage(new Document("$sort", new Document("_id.shopId", 1).append("_id.category", 1))),
+                Aggregation.stage(new Document("$group", new Document("_id", "$_id.shopId")
+                        .append("productCount", new Document("$sum", "$productCount"))
+                        .append("totalStock", new Document("$sum", "$totalStock"))
+                        .append("stockValue", new Document("$sum", "$stockValue"))
+                        .append("categories", new Document("$push", new Document("category", "$_id.category")
+                                .append("productCount", "$productCount")
+                                .append("totalStock", "$totalStock")
+                                .append("stockValue", "$stockValue"))))),
+                Aggregation.stage(new Document("$sort", new Document("_id", 1))));
+        Instant now = Instant.now();
+        List<ShopStats> stats = new ArrayList<>();
+        for (Document shop : mongoTemplate.aggregate(pipeline, "products", Document.class).getMappedResults()) {
+            List<CategoryStats> categories = new ArrayList<>();
+            for (Document c : shop.getList("categories", Document.class)) {
+                categories.add(new CategoryStats(c.getString("category"), asLong(c.get("productCount")),
+                        asLong(c.get("totalStock")), asDecimal(c.get("stockValue"))));
+            }
+            stats.add(new ShopStats(Objects.toString(shop.get("_id"), null), asLong(shop.get("productCount")),
+                    asLong(shop.get("totalStock")), asDecimal(shop.get("stockValue")), categories, now));
+        }
+        return stats;
+    }
+
+    private static long asLong(Object value) {
+        return value instanceof Number n ? n.longValue() : 0;
+    }
+
+    private static BigDecimal asDecimal(Object value) {
+        if (value instanceof Decimal128 d) return d.bigDecimalValue();
+        if (value instanceof Number n) return new BigDecimal(n.toString());
+        return BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,5 @@
+package com.example.mall.shop;
+
+/** Listing/picker view of a shop, without description, contact details or audit data. */
+public record ShopSummary(String id, String shopName, String ownerUserId) {
+}
@@ -1,8 +1,13 @@
 package com.example.mall.shop.dto;
 
+import jakarta.validation.constraints.Pattern;
+
+/** Absent fields are left unchanged; the ones {@link ShopCreateRequest} requires may not be set to blank. */
 public class ShopUpdateRequest {
+    @Pattern(regexp = ".*\\S.*", message = "must not be blank")
     private String shopName;
     private String description;
+    @Pattern(regexp = ".*\\S.*", message = "must not be blank")
     private String ownerUserId;
     private String contactNumber;
     private String address;
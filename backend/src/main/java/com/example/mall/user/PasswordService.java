@@ -0,0 +1,171 @@
+package com.example.mall.user;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Password hashing and verification with bcrypt.
+ *
+ * <p>bcrypt is CPU-bound by design, so hashing runs on a small fixed pool instead of the request threads:
+ * a login burst queues up to {@code mall.auth.verify.queue} jobs and anything beyond that fails fast with
+ * {@link RejectedExecutionException} rather than starving product and shop traffic. Login uses the
+ * {@code *Async} variants so the request thread is released while the check waits in the queue; the plain
+ * variants wait on the calling thread for up to {@code mall.auth.verify.timeout-ms} and are meant for the
+ * rarer account writes.
+ *
+ * <p>Successful verifications are remembered for {@code mall.auth.verify.cache-ttl} so repeat logins skip
+ * bcrypt. The cache key is an HMAC of stored hash and password under a per-process random key, so the cache
+ * never holds a password and changing the password (new stored hash) invalidates the entry. Failures are
+ * never cached.
+ */
+@Service
+public class PasswordService implements DisposableBean {
+    private static final Pattern BCRYPT = Pattern.compile("\\$2[aby]?\\$\\d\\d\\$[./0-9A-Za-z]{53}");
+
+    private final BCryptPasswordEncoder encoder;
+    private final ThreadPoolExecutor pool;
+    private final long timeoutMs;
+    private final Cache<String, Boolean> verified;
+    private final SecretKeySpec cacheKey;
+    // compared against when the account does not exist, so unknown emails cost as much as wrong passwords
+    private final String dummyHash;
+
+    public PasswordService(@Value("${mall.auth.bcrypt.cost:10}") int cost,
+                           @Value("${mall.auth.verify.threads:0}") int threads,
+                           @Value("${mall.auth.verify.queue:256}") int queue,
+                           @Value("${mall.auth.verify.timeout-ms:5000}") long timeoutMs,
+                           @Value("${mall.auth.verify.cache-ttl:5m}") Duration cacheTtl,
+                           @Value("${mall.auth.verify.cache-size:10000}") long cacheSize) {
+        this.encoder = new BCryptPasswordEncoder(cost);
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger n = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(Math.max(1, queue)), r -> {
+            Thread t = new Thread(r, "password-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        this.timeoutMs = timeoutMs;
+        this.verified = Caffeine.newBuilder().maximumSize(cacheSize).expireAfterWrite(cacheTtl).build();
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.cacheKey = new SecretKeySpec(key, "HmacSHA256");
+        this.dummyHash = encoder.encode("dummy-password");
+    }
+
+    public String hash(String raw) {
+        return join(hashAsync(raw));
+    }
+
+    public CompletableFuture<String> hashAsync(String raw) {
+        return submit(() -> encoder.encode(raw));
+    }
+
+    /**
+     * Checks {@code raw} against a stored bcrypt hash. Passwords stored before hashing was introduced are still
+     * accepted (constant-time compare) until {@link #needsRehash} upgrades them. A null {@code stored} burns one
+     * verification against a dummy hash and returns false.
+     *
+     * @throws RejectedExecutionException when the verification pool is saturated or the check timed out
+     */
+    public boolean matches(String raw, String stored) {
+        return join(matchesAsync(raw, stored));
+    }
+
+    /** {@link #matches} without waiting; fails with {@link RejectedExecutionException} in the same cases. */
+    public CompletableFuture<Boolean> matchesAsync(String raw, String stored) {
+        if (raw == null) return CompletableFuture.completedFuture(false);
+        if (stored == null) {
+            return submit(() -> encoder.matches(raw, dummyHash)).thenApply(ignored -> false);
+        }
+        if (!isHashed(stored)) {
+            return CompletableFuture.completedFuture(
+                    MessageDigest.isEqual(raw.getBytes(StandardCharsets.UTF_8), stored.getBytes(StandardCharsets.UTF_8)));
+        }
+        String key = cacheKey(raw, stored);
+        if (verified.getIfPresent(key) != null) return CompletableFuture.completedFuture(true);
+        return submit(() -> encoder.matches(raw, stored)).thenApply(ok -> {
+            if (ok) verified.put(key, Boolean.TRUE);
+            return ok;
+        });
+    }
+
+    /** True for legacy plaintext values and hashes made with a lower cost than configured. */
+    public boolean needsRehash(String stored) {
+        return stored != null && (!isHashed(stored) || encoder.upgradeEncoding(stored));
+    }
+
+    public static boolean isHashed(String stored) {
+        return BCRYPT.matcher(stored).matches();
+    }
+
+    /** Queues {@code task} on the pool; the future fails if the queue is full or the task misses the timeout. */
+    private <T> CompletableFuture<T> submit(Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> job;
+        try {
+            job = pool.submit(() -> {
+                try {
+                    result.complete(task.call());
+                } catch (Exception e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture.delayedExecutor(timeoutMs, TimeUnit.MILLISECONDS).execute(() -> {
+            if (result.completeExceptionally(new RejectedExecutionException("Password check timed out after " + timeoutMs + " ms"))) {
+                job.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException re ? re : new IllegalStateException(e.getCause());
+        }
+    }
+
+    private String cacheKey(String raw, String stored) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(cacheKey);
+            mac.update(stored.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return Base64.getEncoder().encodeToString(mac.doFinal(raw.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        pool.shutdownNow();
+    }
+}
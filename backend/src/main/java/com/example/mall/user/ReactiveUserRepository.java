@@ -0,0 +1,6 @@
+package com.example.mall.user;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+public interface ReactiveUserRepository extends ReactiveMongoRepository<User, String> {
+}
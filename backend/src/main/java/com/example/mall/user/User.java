@@ -1,5 +1,6 @@
 package com.example.mall.user;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
@@ -14,6 +15,7 @@ public class User {
 
     private String name;
 
+    @JsonIgnore // bcrypt hash; never sent to clients
     private String password;
 
     private String phone;
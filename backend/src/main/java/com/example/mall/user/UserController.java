@@ -1,32 +1,98 @@
 package com.example.mall.user;
 
+import com.example.mall.audit.AuditEvent.Action;
+import com.example.mall.audit.AuditLog;
+import com.example.mall.auth.SessionToken;
+import com.example.mall.auth.TokenRevocationList;
+import com.example.mall.auth.TokenService;
+import com.example.mall.common.NdjsonExporter;
+import com.example.mall.shop.ShopDeletionService;
+import com.example.mall.shop.ShopRepository;
 import com.example.mall.user.dto.LoginRequest;
+import com.example.mall.user.dto.LoginResponse;
 import com.example.mall.user.dto.UserCreateRequest;
 import com.example.mall.user.dto.UserUpdateRequest;
 import jakarta.validation.Valid;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api")
 public class UserController {
+    private static final String ADMIN = "admin";
+
     private final UserRepository userRepository;
+    private final NdjsonExporter ndjsonExporter;
+    private final PasswordService passwordService;
+    private final TokenService tokenService;
+    private final TokenRevocationList revocations;
+    private final ShopRepository shopRepository;
+    private final ShopDeletionService shopDeletionService;
+    private final AuditLog auditLog;
 
-    public UserController(UserRepository userRepository) {
+    public UserController(UserRepository userRepository, NdjsonExporter ndjsonExporter, PasswordService passwordService,
+                          TokenService tokenService, TokenRevocationList revocations, ShopRepository shopRepository,
+                          ShopDeletionService shopDeletionService, AuditLog auditLog) {
         this.userRepository = userRepository;
+        this.ndjsonExporter = ndjsonExporter;
+        this.passwordService = passwordService;
+        this.tokenService = tokenService;
+        this.revocations = revocations;
+        this.shopRepository = shopRepository;
+        this.shopDeletionService = shopDeletionService;
+        this.auditLog = auditLog;
     }
 
+    /** Completes off the request thread: the servlet thread is released while bcrypt waits in the verification pool. */
     @PostMapping("/auth/login")
-    public ResponseEntity<?> login(@Valid @RequestBody LoginRequest request) {
+    public CompletableFuture<ResponseEntity<?>> login(@Valid @RequestBody LoginRequest request) {
         Optional<User> userOpt = userRepository.findByEmail(request.getEmail());
-        if (userOpt.isPresent() && userOpt.get().getPassword().equals(request.getPassword())) {
-            return ResponseEntity.ok(userOpt.get());
-        }
-        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid credentials");
+        return passwordService.matchesAsync(request.getPassword(), userOpt.map(User::getPassword).orElse(null))
+                .thenCompose(ok -> {
+                    if (!ok) {
+                        return CompletableFuture.<ResponseEntity<?>>completedFuture(
+                                ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid credentials"));
+                    }
+                    User user = userOpt.get();
+                    CompletableFuture<User> current = CompletableFuture.completedFuture(user);
+                    if (passwordService.needsRehash(user.getPassword())) {
+                        current = passwordService.hashAsync(request.getPassword()).thenApply(hash -> {
+                            user.setPassword(hash);
+                            return userRepository.save(user);
+                        });
+                    }
+                    return current.thenApply(u -> ResponseEntity.ok(
+                            new LoginResponse(tokenService.issue(u.getId(), u.getRole()), Instant.now().plus(tokenService.getTtl()), u)));
+                })
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof RejectedExecutionException) return loginBusy();
+                    throw e instanceof CompletionException ce ? ce : new CompletionException(cause);
+                });
+    }
+
+    @PostMapping("/auth/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        SessionToken token = authorization != null && authorization.startsWith("Bearer ")
+                ? tokenService.verify(authorization.substring("Bearer ".length())) : null;
+        if (token != null) { revocations.revoke(token); }
+        return ResponseEntity.noContent().build();
+    }
+
+    private static ResponseEntity<String> loginBusy() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "1").body("Too many password checks in progress, retry shortly");
     }
 
     @GetMapping("/users")
@@ -34,15 +100,26 @@ public class UserController {
         return userRepository.findAll();
     }
 
+    @GetMapping("/users/export")
+    public ResponseEntity<StreamingResponseBody> export() {
+        return ndjsonExporter.export(userRepository::streamAllBy);
+    }
+
     @PostMapping("/users")
-    public ResponseEntity<User> create(@Valid @RequestBody UserCreateRequest req) {
+    public ResponseEntity<?> create(@Valid @RequestBody UserCreateRequest req) {
+        // sign-up is anonymous, so nobody can vouch for an admin here; admins promote users through update
+        if (ADMIN.equalsIgnoreCase(req.getRole())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("The admin role cannot be assigned at sign-up");
+        }
         User u = new User();
         u.setEmail(req.getEmail());
         u.setName(req.getName());
-        u.setPassword(req.getPassword());
+        try { u.setPassword(passwordService.hash(req.getPassword())); }
+        catch (RejectedExecutionException e) { return loginBusy(); }
         u.setPhone(req.getPhone());
         u.setRole(req.getRole());
         User saved = userRepository.save(u);
+        auditLog.record(Action.CREATE, "users", saved.getId());
         return ResponseEntity.status(HttpStatus.CREATED).body(saved);
     }
 
@@ -53,25 +130,54 @@ public class UserController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /** Same rule as {@link #delete}; only an admin may change a role. */
     @PutMapping("/users/{id}")
-    public ResponseEntity<User> update(@PathVariable("id") String id, @Valid @RequestBody UserUpdateRequest req) {
-        return userRepository.findById(id).map(existing -> {
+    public ResponseEntity<?> update(@PathVariable("id") String id, @Valid @RequestBody UserUpdateRequest req,
+                                    @RequestAttribute(SessionToken.REQUEST_ATTRIBUTE) SessionToken caller) {
+        if (!ownerOrAdmin(id, caller)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Only the account owner or an admin can change this user");
+        }
+        return userRepository.findById(id).<ResponseEntity<?>>map(existing -> {
+            boolean roleChanged = req.getRole() != null && !req.getRole().equals(existing.getRole());
+            if (roleChanged && !ADMIN.equals(caller.role())) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Only an admin can change a user's role");
+            }
             existing.setName(req.getName());
             if (req.getPhone() != null) { existing.setPhone(req.getPhone()); }
-            if (req.getRole() != null) { existing.setRole(req.getRole()); }
+            if (roleChanged) {
+                existing.setRole(req.getRole());
+                revocations.revokeUser(id, tokenService.getTtl()); // issued tokens still carry the old role
+            }
             if (req.getPassword() != null && !req.getPassword().isBlank()) {
-                existing.setPassword(req.getPassword());
+                try { existing.setPassword(passwordService.hash(req.getPassword())); }
+                catch (RejectedExecutionException e) { return loginBusy(); }
+                revocations.revokeUser(id, tokenService.getTtl());
             }
-            return ResponseEntity.ok(userRepository.save(existing));
+            User saved = userRepository.save(existing);
+            auditLog.record(Action.UPDATE, "users", id);
+            return ResponseEntity.ok(saved);
         }).orElse(ResponseEntity.notFound().build());
     }
 
+    /** Only the user themselves or an admin; {@code AuthTokenFilter} has already required a token. */
     @DeleteMapping("/users/{id}")
-    public ResponseEntity<Void> delete(@PathVariable("id") String id) {
+    public ResponseEntity<?> delete(@PathVariable("id") String id,
+                                    @RequestAttribute(SessionToken.REQUEST_ATTRIBUTE) SessionToken caller) {
+        if (!ownerOrAdmin(id, caller)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Only the account owner or an admin can delete this user");
+        }
         if (userRepository.existsById(id)) {
             userRepository.deleteById(id);
+            revocations.revokeUser(id, tokenService.getTtl());
+            auditLog.record(Action.DELETE, "users", id);
+            // the user's shops go with them, each with its own background product cleanup
+            shopRepository.findIdsByOwnerUserId(id).forEach(shop -> shopDeletionService.delete(shop.getId(), caller));
             return ResponseEntity.noContent().build();
         }
         return ResponseEntity.notFound().build();
     }
+
+    private static boolean ownerOrAdmin(String id, SessionToken caller) {
+        return id.equals(caller.userId()) || ADMIN.equals(caller.role());
+    }
 }
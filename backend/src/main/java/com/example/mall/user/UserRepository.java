@@ -1,8 +1,11 @@
 package com.example.mall.user;
 
 import java.util.Optional;
+import java.util.stream.Stream;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
 public interface UserRepository extends MongoRepository<User, String> {
     Optional<User> findByEmail(String email);
+
+    Stream<User> streamAllBy();
 }
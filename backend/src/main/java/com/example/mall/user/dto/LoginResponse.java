@@ -0,0 +1,21 @@
+package com.example.mall.user.dto;
+
+import com.example.mall.user.User;
+
+import java.time.Instant;
+
+public class LoginResponse {
+    private final String token;
+    private final Instant expiresAt;
+    private final User user;
+
+    public LoginResponse(String token, Instant expiresAt, User user) {
+        this.token = token;
+        this.expiresAt = expiresAt;
+        this.user = user;
+    }
+
+    public String getToken() { return token; }
+    public Instant getExpiresAt() { return expiresAt; }
+    public User getUser() { return user; }
+}
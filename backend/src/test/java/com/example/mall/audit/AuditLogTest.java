@@ -0,0 +1,85 @@
+package com.example.mall.audit;
+
+import com.example.mall.audit.AuditEvent.Action;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AuditLogTest {
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+    private final List<String> stored = new CopyOnWriteArrayList<>();
+
+    AuditLogTest() {
+        BulkOperations bulk = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkMode.UNORDERED, AuditEvent.class)).thenReturn(bulk);
+        when(bulk.insert(anyList())).thenAnswer(call -> {
+            // the writer reuses its batch list, so copy what was passed now
+            for (Object event : (List<?>) call.getArgument(0)) stored.add(((AuditEvent) event).getDocumentId());
+            return bulk;
+        });
+    }
+
+    @Test
+    void fullBufferDropsAfterTheOfferTimeout() {
+        AuditLog audit = auditLog(2, Duration.ofMillis(50)); // writer not started, so nothing frees a slot
+        audit.record(Action.CREATE, "products", "p1");
+        audit.record(Action.CREATE, "products", "p2");
+
+        long start = System.nanoTime();
+        audit.record(Action.CREATE, "products", "p3");
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(50));
+        assertThat(count("enqueued")).isEqualTo(2);
+        assertThat(count("dropped")).isEqualTo(1);
+        assertThat(meters.counter("mall.audit.enqueue.waits").count()).isEqualTo(1);
+    }
+
+    @Test
+    void fullBufferDropsAtOnceOnANonBlockingThread() {
+        AuditLog audit = auditLog(2, Duration.ofSeconds(10));
+        audit.record(Action.CREATE, "products", "p1");
+        audit.record(Action.CREATE, "products", "p2");
+
+        long start = System.nanoTime();
+        Mono.fromRunnable(() -> audit.record(Action.CREATE, "products", "p3")).subscribeOn(Schedulers.parallel()).block();
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+        assertThat(count("dropped")).isEqualTo(1);
+        assertThat(meters.counter("mall.audit.enqueue.waits").count()).isZero();
+    }
+
+    @Test
+    void shutdownDrainsWhatIsBuffered() throws Exception {
+        AuditLog audit = auditLog(1024, Duration.ofMillis(10));
+        audit.afterPropertiesSet();
+        for (int i = 0; i < 700; i++) audit.record(Action.UPDATE, "products", "p" + i);
+
+        audit.destroy(); // the hour-long flush interval means only the drain can have written the tail
+
+        assertThat(stored).hasSize(700).doesNotHaveDuplicates().contains("p0", "p699");
+        assertThat(count("written")).isEqualTo(700);
+        assertThat(count("dropped")).isZero();
+    }
+
+    private AuditLog auditLog(int bufferSize, Duration offerTimeout) {
+        return new AuditLog(mongoTemplate, meters, bufferSize, 500, Duration.ofHours(1), offerTimeout, Duration.ofSeconds(10));
+    }
+
+    private double count(String outcome) {
+        return meters.counter("mall.audit.events", "outcome", outcome).count();
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.mall.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RingBufferTest {
+    @Test
+    void roundsCapacityUpToAPowerOfTwo() {
+        assertThat(new RingBuffer<>(1000).capacity()).isEqualTo(1024);
+        assertThat(new RingBuffer<>(1024).capacity()).isEqualTo(1024);
+    }
+
+    @Test
+    void failsTheOfferWhenFullAndAcceptsAgainAfterAPoll() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(4);
+        for (int i = 0; i < 4; i++) assertThat(buffer.offer(i)).isTrue();
+
+        assertThat(buffer.offer(4)).isFalse();
+        assertThat(buffer.poll()).isZero();
+        assertThat(buffer.offer(4)).isTrue();
+        assertThat(buffer.size()).isEqualTo(4);
+    }
+
+    @Test
+    void concurrentProducersLoseAndDuplicateNothing() throws Exception {
+        int producers = 4;
+        int perProducer = 25_000;
+        RingBuffer<Integer> buffer = new RingBuffer<>(1024); // small, so producers keep hitting a full buffer
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            Thread t = new Thread(() -> {
+                try { start.await(); } catch (InterruptedException e) { return; }
+                for (int i = 0; i < perProducer; i++) {
+                    while (!buffer.offer(base + i)) Thread.onSpinWait();
+                }
+            });
+            t.start();
+            threads.add(t);
+        }
+        AtomicBoolean done = new AtomicBoolean();
+        BitSet seen = new BitSet(producers * perProducer);
+        int[] duplicates = new int[1];
+        Thread consumer = new Thread(() -> {
+            int taken = 0;
+            while (taken < producers * perProducer) {
+                Integer item = buffer.poll();
+                if (item == null) { Thread.onSpinWait(); continue; }
+                if (seen.get(item)) duplicates[0]++;
+                seen.set(item);
+                taken++;
+            }
+            done.set(true);
+        });
+        consumer.start();
+        start.countDown();
+        for (Thread t : threads) t.join(30_000);
+        consumer.join(30_000);
+
+        assertThat(done).isTrue();
+        assertThat(duplicates[0]).isZero();
+        assertThat(seen.cardinality()).isEqualTo(producers * perProducer);
+        assertThat(buffer.poll()).isNull();
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.mall.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EndpointClassTest {
+    @Test
+    void leavesNonApiPathsAndPreflightsUnlimited() {
+        assertThat(of("GET", "/actuator/health")).isNull();
+        assertThat(of("GET", "/apiary")).isNull();
+        assertThat(of("OPTIONS", "/api/products")).isNull();
+    }
+
+    @Test
+    void classifiesAuthBeforeMethod() {
+        assertThat(of("POST", "/api/auth/login")).isEqualTo(EndpointClass.AUTH);
+        assertThat(of("POST", "/api/auth/logout")).isEqualTo(EndpointClass.AUTH);
+    }
+
+    @Test
+    void classifiesEveryOtherMutationAsWrite() {
+        assertThat(of("POST", "/api/products")).isEqualTo(EndpointClass.WRITE);
+        assertThat(of("PUT", "/api/shops/1")).isEqualTo(EndpointClass.WRITE);
+        assertThat(of("DELETE", "/api/users/1")).isEqualTo(EndpointClass.WRITE);
+        assertThat(of("POST", "/api/products/search")).isEqualTo(EndpointClass.WRITE);
+    }
+
+    @Test
+    void classifiesUnboundedReadsAsList() {
+        for (String path : new String[]{"/api/products", "/api/shops", "/api/users", "/api/products/page",
+                "/api/products/by-price", "/api/products/search", "/api/products/export", "/api/shops/export",
+                "/api/users/export", "/api/shops/stats"}) {
+            assertThat(of("GET", path)).as(path).isEqualTo(EndpointClass.LIST);
+        }
+        assertThat(of("HEAD", "/api/products")).isEqualTo(EndpointClass.LIST);
+    }
+
+    @Test
+    void classifiesSingleDocumentReadsAsRead() {
+        assertThat(of("GET", "/api/products/123")).isEqualTo(EndpointClass.READ);
+        assertThat(of("GET", "/api/shops/1/stats")).isEqualTo(EndpointClass.READ);
+        assertThat(of("GET", "/api/shops/1/deletion")).isEqualTo(EndpointClass.READ);
+    }
+
+    @Test
+    void matchesThePathSpringRoutes() {
+        assertThat(of("GET", "/api/%70roducts/export")).isEqualTo(EndpointClass.LIST);
+        assertThat(of("GET", "/api/products;a=1")).isEqualTo(EndpointClass.LIST);
+        assertThat(of("GET", "/api//shops")).isEqualTo(EndpointClass.LIST);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/mall/api/products");
+        request.setContextPath("/mall");
+        assertThat(EndpointClass.of(request)).isEqualTo(EndpointClass.LIST);
+    }
+
+    private static EndpointClass of(String method, String uri) {
+        return EndpointClass.of(new MockHttpServletRequest(method, uri));
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.mall.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimiterTest {
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final AdmissionControlFilter.Limit TEN_PER_SECOND_BURST_5 = new AdmissionControlFilter.Limit(10, 5);
+    private static final long T0 = 1_000_000 * MS;
+
+    private final RateLimiter limiter = new RateLimiter();
+
+    @Test
+    void limitConvertsToInterval() {
+        assertThat(TEN_PER_SECOND_BURST_5.intervalNanos()).isEqualTo(100 * MS);
+        assertThat(TEN_PER_SECOND_BURST_5.burstNanos()).isEqualTo(500 * MS);
+        assertThat(new AdmissionControlFilter.Limit(2, 0).burstNanos()).isEqualTo(500 * MS); // burst of at least one
+    }
+
+    @Test
+    void admitsTheBurstAtOnceThenWaitsOneInterval() {
+        for (int i = 0; i < 5; i++) assertThat(acquire(T0)).isZero();
+
+        assertThat(acquire(T0)).isEqualTo(100 * MS);
+        assertThat(acquire(T0 + 40 * MS)).isEqualTo(60 * MS);
+    }
+
+    @Test
+    void admitsOnePerIntervalOnceTheBurstIsSpent() {
+        for (int i = 0; i < 5; i++) acquire(T0);
+
+        for (int k = 1; k <= 20; k++) {
+            long now = T0 + k * 100 * MS;
+            assertThat(acquire(now)).as("request %d", k).isZero();
+            assertThat(acquire(now)).isEqualTo(100 * MS);
+            assertThat(acquire(now + 99 * MS)).isEqualTo(MS);
+        }
+    }
+
+    @Test
+    void refillsToTheBurstAndNoFurther() {
+        for (int i = 0; i < 5; i++) acquire(T0);
+
+        long later = T0 + 60_000 * MS;
+        for (int i = 0; i < 5; i++) assertThat(acquire(later)).isZero();
+        assertThat(acquire(later)).isEqualTo(100 * MS);
+    }
+
+    @Test
+    void rejectedRequestsDoNotConsumeTokens() {
+        for (int i = 0; i < 5; i++) acquire(T0);
+        for (int i = 0; i < 100; i++) acquire(T0 + 50 * MS);
+
+        assertThat(acquire(T0 + 100 * MS)).isZero();
+    }
+
+    @Test
+    void worksForNegativeClockValues() {
+        // System.nanoTime() may be negative
+        assertThat(acquire(-T0)).isZero();
+    }
+
+    @Test
+    void retryAfterRoundsUpToWholeSeconds() {
+        assertThat(AdmissionControlFilter.retryAfterSeconds(MS)).isEqualTo(1);
+        assertThat(AdmissionControlFilter.retryAfterSeconds(999 * MS)).isEqualTo(1);
+        assertThat(AdmissionControlFilter.retryAfterSeconds(1_500 * MS)).isEqualTo(2);
+
+        AdmissionControlFilter.Limit oneEveryTwoSeconds = new AdmissionControlFilter.Limit(0.5, 1);
+        assertThat(limiter.tryAcquire(T0, oneEveryTwoSeconds.intervalNanos(), oneEveryTwoSeconds.burstNanos())).isZero();
+        long wait = limiter.tryAcquire(T0 + 500 * MS, oneEveryTwoSeconds.intervalNanos(), oneEveryTwoSeconds.burstNanos());
+        assertThat(wait).isEqualTo(1_500 * MS);
+        assertThat(AdmissionControlFilter.retryAfterSeconds(wait)).isEqualTo(2);
+    }
+
+    private long acquire(long now) {
+        return limiter.tryAcquire(now, TEN_PER_SECOND_BURST_5.intervalNanos(), TEN_PER_SECOND_BURST_5.burstNanos());
+    }
+}
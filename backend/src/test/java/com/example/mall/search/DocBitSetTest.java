@@ -0,0 +1,37 @@
+package com.example.mall.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DocBitSetTest {
+    @Test
+    void growsAndFindsBitsAcrossWords() {
+        DocBitSet bits = new DocBitSet(1);
+        bits.set(3);
+        bits.set(64);
+        bits.set(1000);
+
+        assertThat(bits.get(64)).isTrue();
+        assertThat(bits.get(65)).isFalse();
+        assertThat(bits.get(100_000)).isFalse();
+        assertThat(bits.nextSetBit(0)).isEqualTo(3);
+        assertThat(bits.nextSetBit(4)).isEqualTo(64);
+        assertThat(bits.nextSetBit(65)).isEqualTo(1000);
+        assertThat(bits.nextSetBit(1001)).isEqualTo(-1);
+        assertThat(bits.nextSetBit(100_000)).isEqualTo(-1);
+    }
+
+    @Test
+    void clearRemovesOnlyThatBit() {
+        DocBitSet bits = new DocBitSet();
+        bits.set(10);
+        bits.set(11);
+        bits.clear(10);
+        bits.clear(5000); // beyond the words, a no-op
+
+        assertThat(bits.nextSetBit(0)).isEqualTo(11);
+        bits.clearAll();
+        assertThat(bits.nextSetBit(0)).isEqualTo(-1);
+    }
+}
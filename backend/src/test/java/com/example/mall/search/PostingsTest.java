@@ -0,0 +1,54 @@
+package com.example.mall.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PostingsTest {
+    @Test
+    void advanceFindsDocsWithinTheLinearProbe() {
+        Postings p = postings(2, 4, 6, 8);
+
+        assertThat(p.advance(0, 6)).isEqualTo(2);
+        assertThat(p.advance(0, 5)).isEqualTo(-2 - 1); // insertion point 2
+        assertThat(p.advance(0, 9)).isEqualTo(-4 - 1);
+    }
+
+    @Test
+    void advanceGallopsPastTheLinearProbe() {
+        Postings p = new Postings();
+        for (int doc = 0; doc < 1000; doc++) p.add(doc * 3, 1f);
+
+        assertThat(p.advance(0, 2997)).isEqualTo(999);
+        assertThat(p.advance(10, 301)).isEqualTo(-101 - 1);
+        assertThat(p.advance(500, 1503)).isEqualTo(501);
+        assertThat(p.advance(0, 5000)).isEqualTo(-1000 - 1);
+    }
+
+    @Test
+    void remapDropsDeadDocsAndKeepsOrder() {
+        Postings p = postings(0, 1, 2, 3);
+        p.remap(new int[]{-1, 0, -1, 1});
+
+        assertThat(p.size()).isEqualTo(2);
+        assertThat(p.doc(0)).isZero();
+        assertThat(p.doc(1)).isEqualTo(1);
+        assertThat(p.weight(1)).isEqualTo(4f);
+    }
+
+    @Test
+    void tracksTheHighestWeight() {
+        Postings p = new Postings();
+        p.add(1, 1.5f);
+        p.add(2, 4f);
+        p.add(3, 2f);
+        assertThat(p.maxWeight()).isEqualTo(4f);
+    }
+
+    /** Doc {@code d} at position {@code i} gets weight {@code i + 1}. */
+    private static Postings postings(int... docs) {
+        Postings p = new Postings();
+        for (int i = 0; i < docs.length; i++) p.add(docs[i], i + 1);
+        return p;
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.mall.search;
+
+import com.example.mall.product.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSearchIndexTest {
+    private final ProductSearchIndex index = new ProductSearchIndex();
+
+    @Test
+    void staleUpsertDoesNotReplaceNewerVersion() {
+        index.upsert(product("p1", "fresh lamp", "home", "10", 2L));
+        index.upsert(product("p1", "stale lamp", "home", "10", 1L));
+
+        assertThat(ids(search("fresh"))).containsExactly("p1");
+        assertThat(search("stale").total()).isZero();
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void scanDoesNotResurrectProductDeletedDuringBuild() {
+        index.beginBuild();
+        index.upsert(product("p1", "live lamp", "home", "10", 3L));
+        index.addFromScan(product("p1", "scanned lamp", "home", "10", 2L)); // read before the live update
+        index.remove("p2");
+        index.addFromScan(product("p2", "deleted lamp", "home", "10", 1L)); // read before the delete
+        index.finishBuild();
+
+        assertThat(ids(search("lamp"))).containsExactly("p1");
+        assertThat(search("scanned").total()).isZero();
+        assertThat(search("deleted").total()).isZero();
+    }
+
+    @Test
+    void searchesAfterCompaction() {
+        int n = 1500;
+        for (int i = 0; i < n; i++) index.upsert(product("p" + i, "old widget " + i, i % 2 == 0 ? "even" : "odd", Integer.toString(i), 0L));
+        // rewriting every product leaves more dead doc ids than live ones, which compacts the index
+        for (int i = 0; i < n; i++) index.upsert(product("p" + i, "new widget " + i, i % 2 == 0 ? "even" : "odd", Integer.toString(i), 1L));
+
+        assertThat(index.size()).isEqualTo(n);
+        assertThat(search("old").total()).isZero();
+        assertThat(search("widget").total()).isEqualTo(n);
+        assertThat(ids(search("new 1499"))).containsExactly("p1499");
+        SearchResult odd = index.search(new SearchQuery("widget", "odd", null, new BigDecimal("100"), new BigDecimal("109"), 0, 20));
+        assertThat(ids(odd)).containsExactlyInAnyOrder("p101", "p103", "p105", "p107", "p109");
+        assertThat(odd.facets().get("category")).containsEntry("odd", 5).doesNotContainKey("even");
+    }
+
+    @Test
+    void everyTermMustMatch() {
+        index.upsert(product("p1", "red lamp", "home", "10", 0L));
+        index.upsert(product("p2", "red chair", "home", "10", 0L));
+        index.upsert(product("p3", "blue lamp", "home", "10", 0L));
+
+        assertThat(ids(search("red lamp"))).containsExactly("p1");
+        assertThat(ids(search("lamp"))).containsExactlyInAnyOrder("p1", "p3");
+        assertThat(search("red sofa").total()).isZero();
+    }
+
+    @Test
+    void priceBoundsAreInclusive() {
+        index.upsert(product("p10", "lamp", "home", "10.00", 0L));
+        index.upsert(product("p20", "lamp", "home", "20.00", 0L));
+        index.upsert(product("p30", "lamp", "home", "30.00", 0L));
+        index.upsert(product("none", "lamp", "home", null, 0L));
+
+        assertThat(ids(byPrice("10", "20"))).containsExactlyInAnyOrder("p10", "p20");
+        assertThat(ids(byPrice("20.01", null))).containsExactly("p30");
+        assertThat(ids(byPrice(null, "9.99"))).isEmpty();
+        assertThat(ids(byPrice("20", "20"))).containsExactly("p20");
+    }
+
+    @Test
+    void totalIsALowerBoundOnceTheCountCapIsHit() {
+        for (int i = 0; i < ProductSearchIndex.MAX_COUNTED + 10; i++) index.upsert(product("p" + i, "common item", "misc", "1", 0L));
+
+        SearchResult result = search("common");
+        assertThat(result.totalExact()).isFalse();
+        assertThat(result.total()).isEqualTo(ProductSearchIndex.MAX_COUNTED);
+        assertThat(result.hits()).hasSize(20);
+    }
+
+    @Test
+    void totalIsExactBelowTheCap() {
+        for (int i = 0; i < 100; i++) index.upsert(product("p" + i, "common item", "misc", "1", 0L));
+
+        SearchResult result = search("common");
+        assertThat(result.totalExact()).isTrue();
+        assertThat(result.total()).isEqualTo(100);
+    }
+
+    private SearchResult search(String text) {
+        return index.search(new SearchQuery(text, null, null, null, null, 0, 20));
+    }
+
+    private SearchResult byPrice(String min, String max) {
+        return index.search(new SearchQuery("lamp", null, null, min == null ? null : new BigDecimal(min),
+                max == null ? null : new BigDecimal(max), 0, 20));
+    }
+
+    private static List<String> ids(SearchResult result) {
+        return result.hits().stream().map(SearchResult.Hit::id).toList();
+    }
+
+    private static Product product(String id, String name, String category, String price, Long version) {
+        Product p = new Product();
+        p.setId(id);
+        p.setProductName(name);
+        p.setCategory(category);
+        p.setShopId("shop-1");
+        p.setPrice(price == null ? null : new BigDecimal(price));
+        ReflectionTestUtils.setField(p, "version", version); // normally set by Spring Data on save
+        return p;
+    }
+}
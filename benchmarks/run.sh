@@ -0,0 +1,26 @@
+#!/bin/sh
+# Builds the backend and the JMH suites, runs them and writes results/<commit>.json.
+# With a baseline result file as first argument, also compares against it (non-zero exit on regression).
+#
+#   ./run.sh                                  # all suites
+#   ./run.sh results/abc1234.json             # all suites, compared with an earlier run
+#   ./run.sh results/abc1234.json Repository  # only suites matching the regex, compared
+set -e
+cd "$(dirname "$0")"
+BASELINE=
+case "$1" in *.json) BASELINE=$1; shift ;; esac
+
+(cd ../backend && mvn -B -q -DskipTests install)
+mvn -B -q package
+
+mkdir -p results
+COMMIT=$(git rev-parse --short HEAD 2>/dev/null || echo local)
+git diff --quiet HEAD -- ../backend 2>/dev/null || COMMIT="$COMMIT-dirty"
+OUT=results/$COMMIT.json
+[ -e "$OUT" ] && OUT=results/$COMMIT-$(date +%Y%m%d%H%M%S).json
+java -jar target/benchmarks.jar -rf json -rff "$OUT" "$@"
+echo "Results written to $OUT"
+
+if [ -n "$BASELINE" ]; then
+  java -cp target/benchmarks.jar com.example.mall.bench.CompareResults "$BASELINE" "$OUT"
+fi
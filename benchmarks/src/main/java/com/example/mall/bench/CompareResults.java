@@ -0,0 +1,75 @@
+package com.example.mall.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares two JMH JSON result files and flags benchmarks that got slower by more than a threshold
+ * (default 10%) beyond their combined error margins. Exits with status 1 when any regression is found.
+ *
+ * <pre>java -cp target/benchmarks.jar com.example.mall.bench.CompareResults baseline.json current.json [thresholdPercent]</pre>
+ */
+public final class CompareResults {
+    private CompareResults() {}
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: CompareResults <baseline.json> <current.json> [thresholdPercent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) / 100 : 0.10;
+        Map<String, JsonNode> baseline = load(new File(args[0]));
+        Map<String, JsonNode> current = load(new File(args[1]));
+
+        int regressions = 0;
+        System.out.printf("%-90s %14s %14s %9s%n", "benchmark", "baseline", "current", "change");
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            JsonNode after = entry.getValue();
+            String unit = after.path("primaryMetric").path("scoreUnit").asText();
+            double now = after.path("primaryMetric").path("score").asDouble();
+            if (before == null) {
+                System.out.printf("%-90s %14s %14.3f %9s  %s%n", entry.getKey(), "-", now, "new", unit);
+                continue;
+            }
+            double then = before.path("primaryMetric").path("score").asDouble();
+            double noise = finite(before.path("primaryMetric").path("scoreError").asDouble())
+                    + finite(after.path("primaryMetric").path("scoreError").asDouble());
+            // throughput modes: higher is better; time modes: lower is better
+            boolean higherIsBetter = unit.startsWith("ops/");
+            double change = (now - then) / then;
+            double worse = higherIsBetter ? -change : change;
+            boolean regression = worse > threshold && Math.abs(now - then) > noise;
+            if (regression) regressions++;
+            System.out.printf("%-90s %14.3f %14.3f %+8.1f%%  %s%s%n", entry.getKey(), then, now, change * 100, unit,
+                    regression ? "  REGRESSION" : "");
+        }
+        System.out.printf("%d regression(s) over %.0f%%%n", regressions, threshold * 100);
+        if (regressions > 0) System.exit(1);
+    }
+
+    /** Keys results by benchmark name plus parameters, e.g. {@code ...LoginBenchmark.coldLogin cost=10}. */
+    private static Map<String, JsonNode> load(File file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText());
+            Iterator<Map.Entry<String, JsonNode>> params = result.path("params").fields();
+            while (params.hasNext()) {
+                Map.Entry<String, JsonNode> param = params.next();
+                key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText());
+            }
+            results.put(key.toString(), result);
+        }
+        return results;
+    }
+
+    private static double finite(double value) {
+        return Double.isFinite(value) ? value : 0;
+    }
+}
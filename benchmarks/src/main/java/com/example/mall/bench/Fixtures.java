@@ -0,0 +1,114 @@
+package com.example.mall.bench;
+
+import com.example.mall.product.Product;
+import com.example.mall.product.dto.ProductCreateRequest;
+import com.example.mall.shop.Shop;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+/** Deterministic test data shaped like production documents, including audit timestamps and version. */
+final class Fixtures {
+    static final String[] CATEGORIES = {"phones", "laptops", "shoes", "books", "toys", "garden"};
+
+    private static final MappingMongoConverter CONVERTER;
+
+    static {
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext context = new MongoMappingContext();
+        context.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        context.afterPropertiesSet();
+        CONVERTER = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, context);
+        CONVERTER.setCustomConversions(conversions);
+        CONVERTER.afterPropertiesSet();
+    }
+
+    private Fixtures() {}
+
+    /** The application's ObjectMapper: Boot defaults, ISO-8601 instants and Blackbird (see JacksonConfig). */
+    static ObjectMapper objectMapper() {
+        return plainObjectMapper().registerModule(new BlackbirdModule());
+    }
+
+    /** {@link #objectMapper()} without Blackbird, as a reflective baseline. */
+    static ObjectMapper plainObjectMapper() {
+        return Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+    }
+
+    /** Product documents spread over {@code shopIds}, read through the mapping layer so audit fields are set. */
+    static List<Document> productDocuments(int count, List<String> shopIds, long seed) {
+        Random random = new Random(seed);
+        List<Document> docs = new ArrayList<>(count);
+        long now = 1_760_000_000_000L;
+        for (int i = 0; i < count; i++) {
+            String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+            int cents = random.nextInt(100_000);
+            Date created = new Date(now - random.nextInt(1_000_000_000));
+            docs.add(new Document("_id", new ObjectId(created, i))
+                    .append("productName", category + " item " + i)
+                    .append("description", "Synthetic " + category + " product number " + i + " used for benchmarking")
+                    .append("price", BigDecimal.valueOf(cents, 2).toPlainString())
+                    .append("priceCents", (long) cents)
+                    .append("quantity", random.nextInt(500))
+                    .append("category", category)
+                    .append("shopId", shopIds.get(random.nextInt(shopIds.size())))
+                    .append("createdAt", created)
+                    .append("updatedAt", created)
+                    .append("version", 0L)
+                    .append("_class", Product.class.getName()));
+        }
+        return docs;
+    }
+
+    static List<Document> shopDocuments(int count, long seed) {
+        Random random = new Random(seed);
+        List<Document> docs = new ArrayList<>(count);
+        long now = 1_760_000_000_000L;
+        for (int i = 0; i < count; i++) {
+            Date created = new Date(now - random.nextInt(1_000_000_000));
+            docs.add(new Document("_id", new ObjectId(created, i))
+                    .append("shopName", "Shop " + i)
+                    .append("description", "Synthetic shop " + i)
+                    .append("ownerUserId", "owner-" + random.nextInt(100))
+                    .append("contactNumber", "+94 77 000 " + String.format("%04d", i))
+                    .append("address", i + " Main Street, Colombo")
+                    .append("createdAt", created)
+                    .append("updatedAt", created)
+                    .append("_class", Shop.class.getName()));
+        }
+        return docs;
+    }
+
+    static List<Product> products(int count, long seed) {
+        List<String> shopIds = shopDocuments(20, seed).stream().map(d -> d.getObjectId("_id").toHexString()).toList();
+        return productDocuments(count, shopIds, seed).stream().map(d -> CONVERTER.read(Product.class, d)).toList();
+    }
+
+    static List<Shop> shops(int count, long seed) {
+        return shopDocuments(count, seed).stream().map(d -> CONVERTER.read(Shop.class, d)).toList();
+    }
+
+    static ProductCreateRequest createRequest(String shopId) {
+        ProductCreateRequest req = new ProductCreateRequest();
+        req.setProductName("Wireless headphones");
+        req.setDescription("Over-ear, noise cancelling, 30 hour battery");
+        req.setPrice(new BigDecimal("149.99"));
+        req.setQuantity(25);
+        req.setCategory("electronics");
+        req.setShopId(shopId);
+        return req;
+    }
+}
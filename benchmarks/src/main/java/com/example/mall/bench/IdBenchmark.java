@@ -0,0 +1,30 @@
+package com.example.mall.bench;
+
+import com.example.mall.common.IdGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/** Cost of one new id per {@code mall.ids.strategy}; run with {@code -t N} to see contention on SecureRandom. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdBenchmark {
+    @Param({"objectid", "uuidv7", "uuid"})
+    public String strategy;
+
+    private IdGenerator ids;
+
+    @Setup
+    public void setUp() {
+        ids = IdGenerator.of(strategy);
+    }
+
+    @Benchmark
+    public String next() {
+        return ids.next();
+    }
+}
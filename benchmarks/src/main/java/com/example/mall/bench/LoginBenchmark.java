@@ -0,0 +1,52 @@
+package com.example.mall.bench;
+
+import com.example.mall.user.PasswordService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Password verification cost per login at different bcrypt work factors. {@code cold} is a first login
+ * (full bcrypt on the verification pool), {@code cached} a repeat login inside the verification cache TTL.
+ * Run with {@code -t N} to see where the bounded pool caps throughput.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class LoginBenchmark {
+    @Param({"4", "8", "10", "12"})
+    public int cost;
+
+    private PasswordService cold;
+    private PasswordService cached;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        int threads = Runtime.getRuntime().availableProcessors();
+        cold = new PasswordService(cost, threads, 1024, 60_000, Duration.ZERO, 0);
+        cached = new PasswordService(cost, threads, 1024, 60_000, Duration.ofMinutes(5), 1000);
+        hash = cold.hash("correct horse battery staple");
+        cached.matches("correct horse battery staple", hash);
+    }
+
+    @TearDown
+    public void tearDown() {
+        cold.destroy();
+        cached.destroy();
+    }
+
+    @Benchmark
+    public boolean coldLogin() {
+        return cold.matches("correct horse battery staple", hash);
+    }
+
+    @Benchmark
+    public boolean cachedLogin() {
+        return cached.matches("correct horse battery staple", hash);
+    }
+}
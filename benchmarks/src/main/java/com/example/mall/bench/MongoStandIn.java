@@ -0,0 +1,83 @@
+package com.example.mall.bench;
+
+import com.example.mall.config.MongoAuditingConfig;
+import com.example.mall.product.Product;
+import com.example.mall.product.ProductRepository;
+import com.example.mall.shop.Shop;
+import com.example.mall.shop.ShopRepository;
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.bson.Document;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.config.AbstractMongoClientConfiguration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+
+/**
+ * The application's Mongo repositories wired by Spring Data against mongo-java-server, an in-process
+ * implementation of the MongoDB wire protocol. Timings include the driver, mapping and repository layers
+ * but not a real storage engine, so compare them between commits rather than with production latency.
+ */
+final class MongoStandIn implements AutoCloseable {
+    private final MongoServer server;
+    private final AnnotationConfigApplicationContext context;
+
+    MongoStandIn() {
+        server = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = server.bind();
+        System.setProperty("bench.mongo.uri", "mongodb://" + address.getHostString() + ":" + address.getPort());
+        context = new AnnotationConfigApplicationContext(Config.class);
+        MongoTemplate template = template();
+        MongoPersistentEntityIndexResolver resolver = new MongoPersistentEntityIndexResolver(template.getConverter().getMappingContext());
+        for (Class<?> type : List.of(Product.class, Shop.class)) {
+            IndexOperations indexOps = template.indexOps(type);
+            resolver.resolveIndexFor(type).forEach(indexOps::ensureIndex);
+        }
+    }
+
+    MongoTemplate template() { return context.getBean(MongoTemplate.class); }
+    ProductRepository products() { return context.getBean(ProductRepository.class); }
+    ShopRepository shops() { return context.getBean(ShopRepository.class); }
+
+    /** Inserts {@code shops} shops and {@code products} products spread over them; returns the shop ids. */
+    List<String> seed(int shops, int products) {
+        List<Document> shopDocs = Fixtures.shopDocuments(shops, 7);
+        template().getCollection("shops").insertMany(shopDocs);
+        List<String> shopIds = shopDocs.stream().map(d -> d.getObjectId("_id").toHexString()).toList();
+        template().getCollection("products").insertMany(Fixtures.productDocuments(products, shopIds, 7));
+        return shopIds;
+    }
+
+    @Override
+    public void close() {
+        context.close();
+        server.shutdownNow();
+    }
+
+    @Configuration
+    @Import(MongoAuditingConfig.class)
+    @EnableMongoRepositories(basePackageClasses = {ProductRepository.class, ShopRepository.class},
+            includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = {ProductRepository.class, ShopRepository.class}))
+    static class Config extends AbstractMongoClientConfiguration {
+        @Override
+        protected String getDatabaseName() {
+            return "bench";
+        }
+
+        @Override
+        protected void configureClientSettings(MongoClientSettings.Builder builder) {
+            builder.applyConnectionString(new ConnectionString(System.getProperty("bench.mongo.uri")));
+        }
+    }
+}
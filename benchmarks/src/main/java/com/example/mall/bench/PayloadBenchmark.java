@@ -0,0 +1,70 @@
+package com.example.mall.bench;
+
+import com.example.mall.product.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Product list bodies as the server can now send them: plain JSON (the previous mapper), JSON with Blackbird,
+ * and Smile with Blackbird, each with and without gzip. Payload sizes are printed once per trial; the scores
+ * are the CPU cost of producing one body.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayloadBenchmark {
+    @Param({"json", "json-blackbird", "smile-blackbird"})
+    public String format;
+
+    @Param({"1000"})
+    public int size;
+
+    private ObjectWriter writer;
+    private List<Product> products;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper mapper = switch (format) {
+            case "json" -> Fixtures.plainObjectMapper();
+            case "json-blackbird" -> Fixtures.objectMapper();
+            case "smile-blackbird" -> Jackson2ObjectMapperBuilder.smile().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                    .modulesToInstall(new BlackbirdModule()).build();
+            default -> throw new IllegalArgumentException(format);
+        };
+        writer = mapper.writerFor(mapper.getTypeFactory().constructCollectionType(List.class, Product.class));
+        products = Fixtures.products(size, 42);
+        byte[] raw = write();
+        System.out.printf("%n%s, %d products: %d bytes, %d bytes gzipped%n", format, size, raw.length, gzip(raw).length);
+    }
+
+    @Benchmark
+    public byte[] write() throws IOException {
+        return writer.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public byte[] writeGzipped() throws IOException {
+        return gzip(writer.writeValueAsBytes(products));
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(body);
+        }
+        return out.toByteArray();
+    }
+}
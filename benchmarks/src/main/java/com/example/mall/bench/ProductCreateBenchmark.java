@@ -0,0 +1,73 @@
+package com.example.mall.bench;
+
+import com.example.mall.product.Product;
+import com.example.mall.product.ProductMapper;
+import com.example.mall.product.dto.ProductCreateRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/** The CPU part of {@code POST /api/products}: parsing the body, bean validation and mapping it to a Product. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductCreateBenchmark {
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private ProductCreateRequest request;
+    private ObjectReader reader;
+    private byte[] body;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        request = Fixtures.createRequest("shop-1");
+        ObjectMapper mapper = Fixtures.objectMapper();
+        reader = mapper.readerFor(ProductCreateRequest.class);
+        try {
+            body = mapper.writeValueAsBytes(request);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Product toProduct() {
+        return ProductMapper.toProduct(request);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<ProductCreateRequest>> validate() {
+        return validator.validate(request);
+    }
+
+    @Benchmark
+    public ProductCreateRequest parse() throws IOException {
+        return reader.readValue(body);
+    }
+
+    @Benchmark
+    public Product parseValidateAndMap() throws IOException {
+        ProductCreateRequest parsed = reader.readValue(body);
+        if (!validator.validate(parsed).isEmpty()) throw new IllegalStateException("fixture is invalid");
+        return ProductMapper.toProduct(parsed);
+    }
+}
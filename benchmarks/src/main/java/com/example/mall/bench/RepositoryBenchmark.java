@@ -0,0 +1,90 @@
+package com.example.mall.bench;
+
+import com.example.mall.product.Product;
+import com.example.mall.product.ProductRepository;
+import com.example.mall.product.ProductSummary;
+import com.example.mall.shop.ShopRepository;
+import com.example.mall.shop.ShopSummary;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/** Repository calls behind the product and shop endpoints, against the in-process {@link MongoStandIn}. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepositoryBenchmark {
+    private static final int SHOPS = 50;
+    private static final int PRODUCTS = 5_000;
+
+    private MongoStandIn mongo;
+    private ProductRepository products;
+    private ShopRepository shops;
+    private List<String> shopIds;
+    private List<String> productIds;
+
+    @Setup
+    public void setUp() {
+        mongo = new MongoStandIn();
+        shopIds = mongo.seed(SHOPS, PRODUCTS);
+        products = mongo.products();
+        shops = mongo.shops();
+        productIds = products.findAllBy(ProductSummary.class).stream().map(ProductSummary::id).toList();
+    }
+
+    @TearDown
+    public void tearDown() {
+        mongo.close();
+    }
+
+    private String anyProduct() { return productIds.get(ThreadLocalRandom.current().nextInt(productIds.size())); }
+    private String anyShop() { return shopIds.get(ThreadLocalRandom.current().nextInt(shopIds.size())); }
+
+    @Benchmark
+    public Optional<Product> findById() {
+        return products.findById(anyProduct());
+    }
+
+    @Benchmark
+    public List<Product> findByShopId() {
+        return products.findByShopId(anyShop(), Product.class);
+    }
+
+    @Benchmark
+    public List<ProductSummary> findByShopIdSummary() {
+        return products.findByShopId(anyShop(), ProductSummary.class);
+    }
+
+    @Benchmark
+    public List<Product> findPage() {
+        return products.findPage(anyShop(), null, 50);
+    }
+
+    @Benchmark
+    public List<Product> findPricePage() {
+        return products.findPricePage(anyShop(), null, 10_000L, 50_000L, false, null, 50);
+    }
+
+    @Benchmark
+    public boolean shopExists() {
+        return shops.existsById(anyShop());
+    }
+
+    @Benchmark
+    public List<ShopSummary> listShopSummaries() {
+        return shops.findSummariesBy();
+    }
+
+    @Benchmark
+    public Product reserveAndRelease() {
+        String id = anyProduct();
+        Product reserved = products.reserveStock(id, 1);
+        return reserved == null ? null : products.releaseStock(id, 1);
+    }
+}
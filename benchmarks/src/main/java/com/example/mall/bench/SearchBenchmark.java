@@ -0,0 +1,64 @@
+package com.example.mall.bench;
+
+import com.example.mall.product.Product;
+import com.example.mall.search.ProductSearchIndex;
+import com.example.mall.search.SearchQuery;
+import com.example.mall.search.SearchResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of one search including facets over a 1M-product index; sample mode so the p99 is reported.
+ * Every product shares the term "synthetic", so {@code common} is the worst case for a text query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class SearchBenchmark {
+    @Param({"browse", "browseCategory", "browseShopPrice", "common", "commonCategory", "rare", "twoTerms"})
+    public String query;
+
+    @Param("1000000")
+    public int products;
+
+    private ProductSearchIndex index;
+    private SearchQuery q;
+
+    @Setup
+    public void setUp() {
+        index = new ProductSearchIndex();
+        Random random = new Random(42);
+        for (int i = 0; i < products; i++) {
+            String category = Fixtures.CATEGORIES[random.nextInt(Fixtures.CATEGORIES.length)];
+            Product p = new Product();
+            p.setId(Integer.toString(i));
+            p.setProductName(category + " item " + i);
+            p.setDescription("Synthetic " + category + " product number " + (i % 5000) + " used for benchmarking");
+            p.setPrice(BigDecimal.valueOf(random.nextInt(100_000), 2));
+            p.setCategory(category);
+            p.setShopId("shop-" + random.nextInt(2000));
+            index.upsert(p);
+        }
+        q = switch (query) {
+            case "browse" -> new SearchQuery(null, null, null, null, null, 0, 20);
+            case "browseCategory" -> new SearchQuery(null, "books", null, null, null, 0, 20);
+            case "browseShopPrice" -> new SearchQuery(null, null, "shop-7", new BigDecimal("10"), new BigDecimal("200"), 0, 20);
+            case "common" -> new SearchQuery("synthetic", null, null, null, null, 0, 20);
+            case "commonCategory" -> new SearchQuery("synthetic", "books", null, null, null, 0, 20);
+            case "rare" -> new SearchQuery("item 123456", null, null, null, null, 0, 20);
+            case "twoTerms" -> new SearchQuery("books number", null, null, null, null, 0, 20);
+            default -> throw new IllegalArgumentException(query);
+        };
+    }
+
+    @Benchmark
+    public SearchResult search() {
+        return index.search(q);
+    }
+}
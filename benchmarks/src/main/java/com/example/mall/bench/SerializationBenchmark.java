@@ -0,0 +1,47 @@
+package com.example.mall.bench;
+
+import com.example.mall.product.Product;
+import com.example.mall.shop.Shop;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Jackson cost of the list endpoints' response bodies, which carry BigDecimal prices and Instant audit fields. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+    @Param({"50", "1000"})
+    public int size;
+
+    private ObjectWriter productList;
+    private ObjectWriter shopList;
+    private List<Product> products;
+    private List<Shop> shops;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper mapper = Fixtures.objectMapper();
+        productList = mapper.writerFor(mapper.getTypeFactory().constructCollectionType(List.class, Product.class));
+        shopList = mapper.writerFor(mapper.getTypeFactory().constructCollectionType(List.class, Shop.class));
+        products = Fixtures.products(size, 42);
+        shops = Fixtures.shops(size, 42);
+    }
+
+    @Benchmark
+    public byte[] writeProducts() throws IOException {
+        return productList.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public byte[] writeShops() throws IOException {
+        return shopList.writeValueAsBytes(shops);
+    }
+}
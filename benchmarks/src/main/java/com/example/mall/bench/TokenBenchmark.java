@@ -0,0 +1,39 @@
+package com.example.mall.bench;
+
+import com.example.mall.auth.TokenRevocationList;
+import com.example.mall.auth.TokenService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Per-request authentication cost of verifying a session token (signature, claims, revocation check). */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class TokenBenchmark {
+    private TokenService tokens;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        tokens = new TokenService(new ObjectMapper(), new TokenRevocationList(),
+                "c2VjcmV0LXNlY3JldC1zZWNyZXQtc2VjcmV0LXNlY3JldC0xMjM0", List.of(), Duration.ofHours(1));
+        token = tokens.issue("6ad2cd2aa952ee53c00898f6", "admin");
+    }
+
+    @Benchmark
+    public Object verify() {
+        return tokens.verify(token);
+    }
+
+    @Benchmark
+    public String issue() {
+        return tokens.issue("6ad2cd2aa952ee53c00898f6", "admin");
+    }
+}
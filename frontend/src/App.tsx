@@ -1,6 +1,7 @@
 import { BrowserRouter, Routes, Route, Navigate, Link, NavLink } from 'react-router-dom';
 import { useEffect, useMemo, useRef, useState } from 'react';
 import Login from './pages/Login';
+import { logout } from './lib/api';
 import Users from './pages/Users';
 import Shops from './pages/Shops';
 import Products from './pages/Products';
@@ -11,7 +12,7 @@ export default function App(){
   const [avatarOpen,setAvatarOpen]=useState(false);
   const avatarRef = useRef<HTMLDivElement>(null);
   const handleLogin=(u:any)=>{ setUser(u); localStorage.setItem('mall_user', JSON.stringify(u)); };
-  const handleLogout=()=>{ setUser(null); localStorage.removeItem('mall_user'); };
+  const handleLogout=()=>{ logout(); setUser(null); localStorage.removeItem('mall_user'); };
   const userInitial = useMemo(()=> (user?.name || user?.email || 'U').charAt(0).toUpperCase(),[user]);
   const closeMenus = ()=>{ setMobileOpen(false); setAvatarOpen(false); };
 
@@ -7,7 +7,22 @@ export async function login(email: string, password: string) {
     body: JSON.stringify({ email, password })
   });
   if (!res.ok) throw new Error('Invalid credentials');
-  return res.json();
+  const body = await res.json();
+  return { ...body.user, token: body.token, tokenExpiresAt: body.expiresAt };
+}
+
+export async function logout() {
+  await fetch(`${BASE_URL}/auth/logout`, { method: 'POST', headers: authHeaders() }).catch(() => undefined);
+}
+
+// Bearer token from the stored login; product and shop writes and user deletes are rejected without it
+export function authHeaders(headers: Record<string, string> = {}): Record<string, string> {
+  try {
+    const token = JSON.parse(localStorage.getItem('mall_user') || 'null')?.token;
+    return token ? { ...headers, Authorization: `Bearer ${token}` } : headers;
+  } catch {
+    return headers;
+  }
 }
 
 export async function listUsers() {
@@ -37,6 +52,6 @@ export async function updateUser(id: string, payload: { name: string; password?:
 }
 
 export async function deleteUser(id: string) {
-  const res = await fetch(`${BASE_URL}/users/${id}`, { method: 'DELETE' });
+  const res = await fetch(`${BASE_URL}/users/${id}`, { method: 'DELETE', headers: authHeaders() });
   if (!res.ok) throw new Error('Failed to delete user');
 }
@@ -1,3 +1,5 @@
+import { authHeaders } from './api';
+
 const BASE_URL = 'http://localhost:8080/api/products';
 
 export async function listProducts(shopId?: string){
@@ -7,19 +9,37 @@ export async function listProducts(shopId?: string){
   return res.json();
 }
 
+export async function listProductsPage(opts: { shopId?: string; cursor?: string; limit?: number } = {}){
+  const params = new URLSearchParams();
+  if(opts.shopId) params.set('shopId', opts.shopId);
+  if(opts.cursor) params.set('cursor', opts.cursor);
+  if(opts.limit) params.set('limit', String(opts.limit));
+  const res = await fetch(`${BASE_URL}/page?${params}`);
+  if(!res.ok) throw new Error('Failed to fetch products');
+  return res.json() as Promise<{ items: any[]; nextCursor: string | null }>;
+}
+
+export async function searchProducts(opts: { q?: string; category?: string; shopId?: string; minPrice?: number; maxPrice?: number; limit?: number; offset?: number } = {}){
+  const params = new URLSearchParams();
+  Object.entries(opts).forEach(([k, v]) => { if(v !== undefined && v !== '') params.set(k, String(v)); });
+  const res = await fetch(`${BASE_URL}/search?${params}`);
+  if(!res.ok) throw new Error('Failed to search products');
+  return res.json() as Promise<{ total: number; totalExact: boolean; hits: { score: number; product: any }[]; facets: Record<string, Record<string, number>>; tookMs: number }>;
+}
+
 export async function createProduct(payload: { productName: string; description?: string; price: number; quantity: number; category?: string; shopId: string; }){
-  const res = await fetch(BASE_URL,{ method:'POST', headers:{'Content-Type':'application/json'}, body: JSON.stringify(payload)});
+  const res = await fetch(BASE_URL,{ method:'POST', headers: authHeaders({'Content-Type':'application/json'}), body: JSON.stringify(payload)});
   if(!res.ok) throw new Error('Failed to create product');
   return res.json();
 }
 
 export async function updateProduct(id: string, payload: Partial<{ productName: string; description: string; price: number; quantity: number; category: string; shopId: string; }>){
-  const res = await fetch(`${BASE_URL}/${id}`,{ method:'PUT', headers:{'Content-Type':'application/json'}, body: JSON.stringify(payload)});
+  const res = await fetch(`${BASE_URL}/${id}`,{ method:'PUT', headers: authHeaders({'Content-Type':'application/json'}), body: JSON.stringify(payload)});
   if(!res.ok) throw new Error('Failed to update product');
   return res.json();
 }
 
 export async function deleteProduct(id: string){
-  const res = await fetch(`${BASE_URL}/${id}`,{ method:'DELETE' });
+  const res = await fetch(`${BASE_URL}/${id}`,{ method:'DELETE', headers: authHeaders() });
   if(!res.ok) throw new Error('Failed to delete product');
 }
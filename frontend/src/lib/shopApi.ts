@@ -1,3 +1,5 @@
+import { authHeaders } from './api';
+
 const BASE_URL = 'http://localhost:8080/api/shops';
 
 export async function listShops(){
@@ -7,18 +9,18 @@ export async function listShops(){
 }
 
 export async function createShop(payload: { shopName: string; description?: string; ownerUserId: string; contactNumber?: string; address?: string; }){
-  const res = await fetch(BASE_URL,{ method:'POST', headers:{'Content-Type':'application/json'}, body: JSON.stringify(payload)});
+  const res = await fetch(BASE_URL,{ method:'POST', headers: authHeaders({'Content-Type':'application/json'}), body: JSON.stringify(payload)});
   if(!res.ok) throw new Error('Failed to create shop');
   return res.json();
 }
 
 export async function updateShop(id: string, payload: Partial<{ shopName: string; description: string; ownerUserId: string; contactNumber: string; address: string; }>){
-  const res = await fetch(`${BASE_URL}/${id}`,{ method:'PUT', headers:{'Content-Type':'application/json'}, body: JSON.stringify(payload)});
+  const res = await fetch(`${BASE_URL}/${id}`,{ method:'PUT', headers: authHeaders({'Content-Type':'application/json'}), body: JSON.stringify(payload)});
   if(!res.ok) throw new Error('Failed to update shop');
   return res.json();
 }
 
 export async function deleteShop(id: string){
-  const res = await fetch(`${BASE_URL}/${id}`,{ method:'DELETE' });
+  const res = await fetch(`${BASE_URL}/${id}`,{ method:'DELETE', headers: authHeaders() });
   if(!res.ok) throw new Error('Failed to delete shop');
 }